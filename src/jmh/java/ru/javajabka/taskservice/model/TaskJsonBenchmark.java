@@ -0,0 +1,61 @@
+package ru.javajabka.taskservice.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskJsonBenchmark {
+
+    @Param({"1000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private Task task;
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        tasks = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            tasks.add(Task.builder()
+                    .id(i)
+                    .title("Task " + i)
+                    .description("Desc for task " + i)
+                    .status(TaskStatus.IN_PROGRESS)
+                    .deadLine(LocalDate.of(2030, 5, 5))
+                    .author(1L)
+                    .assignee(i % 100)
+                    .createdAt(LocalDateTime.of(2025, 5, 3, 12, 30, 30))
+                    .updatedAt(LocalDateTime.of(2025, 5, 4, 12, 30, 30))
+                    .version(3L)
+                    .build());
+        }
+        task = tasks.get(0);
+    }
+
+    @Benchmark
+    public byte[] serializeTask() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(task);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+}
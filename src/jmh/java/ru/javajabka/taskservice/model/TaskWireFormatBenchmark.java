@@ -0,0 +1,94 @@
+package ru.javajabka.taskservice.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сериализация и разбор страницы задач в JSON, Smile и CBOR.
+ * Размер ответа без сжатия и после gzip печатается в конце каждого прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskWireFormatBenchmark {
+
+    private static final TypeReference<List<Task>> TASKS = new TypeReference<>() {};
+
+    @Param({"1000"})
+    private int size;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private List<Task> tasks;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (format) {
+            case "smile" -> builder.factory(new SmileFactory());
+            case "cbor" -> builder.factory(new CBORFactory());
+            default -> { }
+        }
+        objectMapper = builder.build();
+
+        tasks = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            tasks.add(Task.builder()
+                    .id(i)
+                    .title("Task " + i)
+                    .description("Desc for task " + i)
+                    .status(TaskStatus.IN_PROGRESS)
+                    .deadLine(LocalDate.of(2030, 5, 5))
+                    .author(1L)
+                    .assignee(i % 100)
+                    .createdAt(LocalDateTime.of(2025, 5, 3, 12, 30, 30))
+                    .updatedAt(LocalDateTime.of(2025, 5, 4, 12, 30, 30))
+                    .version(3L)
+                    .build());
+        }
+        payload = objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @TearDown(Level.Trial)
+    public void printSize() throws IOException {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(payload);
+        }
+        System.out.printf("%n%s, %d задач: %d байт, gzip %d байт%n", format, size, payload.length, gzipped.size());
+    }
+
+    @Benchmark
+    public byte[] serializeTaskList() throws IOException {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public List<Task> deserializeTaskList() throws IOException {
+        return objectMapper.readValue(payload, TASKS);
+    }
+}
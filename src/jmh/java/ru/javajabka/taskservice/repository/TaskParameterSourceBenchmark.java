@@ -0,0 +1,39 @@
+package ru.javajabka.taskservice.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskStatus;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskParameterSourceBenchmark {
+
+    private final Task task = Task.builder()
+            .id(42L)
+            .title("Task 42")
+            .description("Desc for task 42")
+            .status(TaskStatus.IN_PROGRESS)
+            .deadLine(LocalDate.of(2030, 5, 5))
+            .author(1L)
+            .assignee(2L)
+            .build();
+
+    @Benchmark
+    public MapSqlParameterSource taskToSql() {
+        return TaskServiceRepository.taskToSql(task);
+    }
+
+    @Benchmark
+    public MapSqlParameterSource patchToSql() {
+        return TaskServiceRepository.patchToSql(task);
+    }
+}
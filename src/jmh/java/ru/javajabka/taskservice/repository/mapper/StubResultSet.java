@@ -0,0 +1,59 @@
+package ru.javajabka.taskservice.repository.mapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Однострочный ResultSet в памяти: отвечает на чтение колонок по имени и по номеру,
+ * чтобы замерять маппер без драйвера и базы.
+ */
+public final class StubResultSet {
+
+    private StubResultSet() {
+    }
+
+    public static ResultSet of(final Map<String, Object> row) {
+        Map<String, Object> columns = new LinkedHashMap<>(row);
+        List<Object> values = new ArrayList<>(columns.values());
+        List<String> names = new ArrayList<>(columns.keySet());
+        boolean[] wasNull = new boolean[1];
+
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findColumn")) {
+                        return names.indexOf((String) args[0]) + 1;
+                    }
+                    if (method.getName().equals("wasNull")) {
+                        return wasNull[0];
+                    }
+                    if (method.getName().equals("getRow")) {
+                        return 1;
+                    }
+                    if (args == null || args.length == 0) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+
+                    Object value = args[0] instanceof String name ? columns.get(name) : values.get((Integer) args[0] - 1);
+                    wasNull[0] = value == null;
+                    return switch (method.getName()) {
+                        case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                        case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                        case "getBoolean" -> value != null && (Boolean) value;
+                        case "getString" -> value == null ? null : value.toString();
+                        case "getDate" -> value == null ? null : Date.valueOf(value.toString().substring(0, 10));
+                        case "getTimestamp" -> (Timestamp) value;
+                        case "getObject" -> value;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                }
+        );
+    }
+}
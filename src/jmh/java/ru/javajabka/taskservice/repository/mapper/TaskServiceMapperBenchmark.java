@@ -0,0 +1,48 @@
+package ru.javajabka.taskservice.repository.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.javajabka.taskservice.model.Task;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskServiceMapperBenchmark {
+
+    private final TaskServiceMapper taskServiceMapper = new TaskServiceMapper();
+    private ResultSet resultSet;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 42L);
+        row.put("title", "Task 42");
+        row.put("description", "Desc for task 42");
+        row.put("status", "IN_PROGRESS");
+        row.put("dead_line", "2030-05-05 00:00:00+03");
+        row.put("author", 1);
+        row.put("assignee", 2);
+        row.put("created_at", Timestamp.valueOf("2025-05-03 12:30:30"));
+        row.put("updated_at", Timestamp.valueOf("2025-05-04 12:30:30"));
+        row.put("version", 3L);
+        row.put("overdue_at", null);
+        row.put("parent_id", 7);
+        resultSet = StubResultSet.of(row);
+    }
+
+    @Benchmark
+    public Task mapRow() throws SQLException {
+        return taskServiceMapper.mapRow(resultSet, 1);
+    }
+}
@@ -0,0 +1,59 @@
+package ru.javajabka.taskservice.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.javajabka.taskservice.model.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserLookupBenchmark {
+
+    @Param({"2", "200"})
+    private int size;
+
+    private UserService userService;
+    private List<Long> userIds;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        userService = new UserService(null, Caffeine.newBuilder().maximumSize(10_000).build(), null, null, null, null);
+        userIds = new ArrayList<>(size);
+        users = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            userIds.add(id);
+            if (id % 10 != 0) {
+                users.add(User.builder().id(id).userName("user" + id).build());
+            }
+        }
+        userService.rememberLookup(userIds, users);
+    }
+
+    /**
+     * Сопоставление ответа сервиса пользователей с запрошенными идентификаторами.
+     */
+    @Benchmark
+    public Set<Long> matchResponse() {
+        return userService.rememberLookup(userIds, users);
+    }
+
+    /**
+     * Проверка, когда все идентификаторы уже есть в кэше и запрос в сервис не нужен.
+     */
+    @Benchmark
+    public Set<Long> cachedLookup() {
+        return userService.findMissingUserIds(userIds);
+    }
+}
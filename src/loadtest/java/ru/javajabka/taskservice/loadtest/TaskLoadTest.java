@@ -0,0 +1,77 @@
+package ru.javajabka.taskservice.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочный тест поиска задач: держит заданное число одновременных соединений
+ * и выводит пропускную способность и перцентили задержки.
+ * Запускается против уже поднятого сервиса, по очереди с spring.threads.virtual.enabled=false и true:
+ * gradle loadTest -PbaseUrl=http://localhost:8082 -Pconnections=5000 -Pduration=60
+ */
+public class TaskLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8082";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 60);
+
+        URI uri = URI.create(baseUrl + "/api/v1/task?limit=20");
+        LongAdder errors = new LongAdder();
+        List<List<Long>> latencies = Collections.synchronizedList(new ArrayList<>());
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .executor(executor)
+                     .build()) {
+            for (int i = 0; i < connections; i++) {
+                executor.submit(() -> {
+                    List<Long> own = new ArrayList<>();
+                    HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                            }
+                        } catch (Exception exc) {
+                            errors.increment();
+                        }
+                        own.add(System.nanoTime() - start);
+                    }
+                    latencies.add(own);
+                });
+            }
+        }
+
+        List<Long> all = new ArrayList<>();
+        latencies.forEach(all::addAll);
+        Collections.sort(all);
+
+        System.out.printf("connections=%d duration=%ds requests=%d errors=%d throughput=%.0f req/s%n",
+                connections, duration.toSeconds(), all.size(), errors.sum(), all.size() / (double) duration.toSeconds());
+        System.out.printf("p50=%dms p95=%dms p99=%dms max=%dms%n",
+                percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), percentile(all, 1.0));
+    }
+
+    private static long percentile(final List<Long> sorted, final double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1);
+        return Duration.ofNanos(sorted.get(Math.max(index, 0))).toMillis();
+    }
+}
@@ -0,0 +1,105 @@
+package ru.javajabka.taskservice.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.javajabka.taskservice.model.IdempotentResponse;
+import ru.javajabka.taskservice.model.Task;
+import java.time.Duration;
+import java.time.Instant;
+
+@Configuration
+public class CacheConfiguration {
+
+    /**
+     * Известные идентификаторы пользователей: true - пользователь существует, false - не найден.
+     * Отрицательные ответы живут меньше, чтобы только что созданный пользователь быстро стал доступен.
+     */
+    @Bean
+    public Cache<Long, Boolean> userIdCache(
+            @Value("${user.cache.max-size}") final long maxSize,
+            @Value("${user.cache.ttl}") final Duration ttl,
+            @Value("${user.cache.negative-ttl}") final Duration negativeTtl,
+            final MeterRegistry meterRegistry
+    ) {
+        Cache<Long, Boolean> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<Long, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(final Long id, final Boolean exists, final long currentTime) {
+                        return (exists ? ttl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(final Long id, final Boolean exists, final long currentTime, final long currentDuration) {
+                        return expireAfterCreate(id, exists, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(final Long id, final Boolean exists, final long currentTime, final long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "userIdCache");
+    }
+
+    /**
+     * Кэш задач по id. Отключается свойством task.cache.enabled=false.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "task.cache.enabled", havingValue = "true")
+    public Cache<Long, Task> taskByIdCache(
+            @Value("${task.cache.max-size}") final long maxSize,
+            @Value("${task.cache.ttl}") final Duration ttl,
+            final MeterRegistry meterRegistry
+    ) {
+        Cache<Long, Task> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "taskCache");
+    }
+
+    /**
+     * Недавние ответы на запросы с ключом идемпотентности, чтобы повтор после сетевой ошибки не ходил в базу.
+     * Ответ живёт не дольше ttl и не дольше срока хранения ключа в базе: после него ключ можно занять заново.
+     */
+    @Bean
+    public Cache<String, IdempotentResponse> idempotencyCache(
+            @Value("${task.idempotency.cache.max-size}") final long maxSize,
+            @Value("${task.idempotency.cache.ttl}") final Duration ttl,
+            final MeterRegistry meterRegistry
+    ) {
+        Cache<String, IdempotentResponse> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, IdempotentResponse>() {
+                    @Override
+                    public long expireAfterCreate(final String key, final IdempotentResponse response, final long currentTime) {
+                        Duration untilExpired = Duration.between(Instant.now(), response.getExpiresAt());
+                        return Math.max(0, Math.min(ttl.toNanos(), untilExpired.toNanos()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(final String key, final IdempotentResponse response, final long currentTime, final long currentDuration) {
+                        return expireAfterCreate(key, response, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(final String key, final IdempotentResponse response, final long currentTime, final long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotencyCache");
+    }
+}
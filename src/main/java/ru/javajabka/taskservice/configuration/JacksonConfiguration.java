@@ -0,0 +1,32 @@
+package ru.javajabka.taskservice.configuration;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import ru.javajabka.taskservice.model.Task;
+
+@Configuration
+@ImportRuntimeHints(TaskRuntimeHints.class)
+public class JacksonConfiguration {
+
+    public static final String TASK_FIELDS_FILTER = "taskFields";
+
+    /**
+     * Фильтр полей задачи подключается через mix-in только к ObjectMapper приложения.
+     * По умолчанию фильтр пропускает все поля, контроллер подменяет его, когда передан параметр fields.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer taskFieldsFilterCustomizer() {
+        return builder -> builder
+                .mixIn(Task.class, TaskFieldsMixIn.class)
+                .filters(new SimpleFilterProvider().addFilter(TASK_FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @JsonFilter(TASK_FIELDS_FILTER)
+    interface TaskFieldsMixIn {
+    }
+}
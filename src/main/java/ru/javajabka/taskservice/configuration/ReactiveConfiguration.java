@@ -0,0 +1,89 @@
+package ru.javajabka.taskservice.configuration;
+
+import io.netty.channel.ChannelOption;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Профиль reactive: задачи читаются и пишутся через R2DBC, сервис пользователей вызывается через WebClient.
+ * Пул R2DBC не регистрируется как ConnectionFactory, чтобы DataSource, Liquibase и фоновые задачи работали как прежде.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfiguration implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+
+    public ReactiveConfiguration(
+            @Value("${task.r2dbc.url}") final String url,
+            @Value("${spring.datasource.username}") final String username,
+            @Value("${spring.datasource.password}") final String password,
+            @Value("${task.r2dbc.pool.initial-size}") final int initialSize,
+            @Value("${task.r2dbc.pool.max-size}") final int maxSize,
+            @Value("${task.r2dbc.pool.max-acquire-time}") final Duration maxAcquireTime
+    ) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .option(PostgresqlConnectionFactoryProvider.OPTIONS,
+                        Map.of("TimeZone", TimeZone.getDefault().getID()))
+                .build();
+
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("task-r2dbc")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Bean
+    public WebClient userServiceWebClient(
+            @Value("${url.service.user}") final String userServiceUrl,
+            @Value("${user.client.max-connections}") final int maxConnections,
+            @Value("${user.client.connect-timeout}") final Duration connectTimeout,
+            @Value("${user.client.read-timeout}") final Duration readTimeout,
+            @Value("${user.client.keep-alive}") final Duration keepAlive
+    ) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("userService")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(connectTimeout)
+                .maxIdleTime(keepAlive)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+
+        return WebClient.builder()
+                .baseUrl(userServiceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,72 @@
+package ru.javajabka.taskservice.configuration;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.unit.DataSize;
+import ru.javajabka.taskservice.datasource.ReplicaDataSource;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Чтение с реплик включается свойством task.replica.urls.
+ * Соединение выбирается при первом запросе транзакции: read-only транзакции (@Transactional(readOnly = true))
+ * уходят на реплики, остальные запросы, Liquibase и LISTEN/NOTIFY - на основную базу.
+ */
+@Configuration
+@ConditionalOnProperty("task.replica.urls")
+public class ReplicaDataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(final DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaDataSource replicaDataSource(
+            final HikariDataSource primaryDataSource,
+            @Value("${task.replica.urls}") final List<String> urls,
+            @Value("${task.replica.pool-size}") final int poolSize,
+            @Value("${task.replica.max-lag}") final DataSize maxLag,
+            @Value("${spring.datasource.hikari.connection-timeout}") final Duration connectionTimeout,
+            final MeterRegistry meterRegistry
+    ) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl(urls.get(i).trim());
+            config.setUsername(primaryDataSource.getUsername());
+            config.setPassword(primaryDataSource.getPassword());
+            config.setDriverClassName(primaryDataSource.getDriverClassName());
+            config.setPoolName("replica-" + i);
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setReadOnly(true);
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        return new ReplicaDataSource(primaryDataSource, replicas, maxLag.toBytes(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(final HikariDataSource primaryDataSource, final ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
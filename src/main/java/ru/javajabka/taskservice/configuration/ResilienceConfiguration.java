@@ -0,0 +1,48 @@
+package ru.javajabka.taskservice.configuration;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import java.time.Duration;
+
+@Configuration
+public class ResilienceConfiguration {
+
+    /**
+     * Ответ 4xx от сервиса пользователей - это ошибка запроса, а не отказ сервиса,
+     * поэтому BadRequestException не учитывается при подсчёте ошибок.
+     */
+    @Bean
+    public CircuitBreaker userServiceCircuitBreaker(
+            @Value("${user.client.circuit-breaker.failure-rate-threshold}") final float failureRateThreshold,
+            @Value("${user.client.circuit-breaker.sliding-window-size}") final int slidingWindowSize,
+            @Value("${user.client.circuit-breaker.wait-in-open-state}") final Duration waitInOpenState,
+            @Value("${user.client.read-timeout}") final Duration readTimeout
+    ) {
+        return CircuitBreaker.of("userService", CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(readTimeout)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(slidingWindowSize / 2)
+                .waitDurationInOpenState(waitInOpenState)
+                .ignoreExceptions(BadRequestException.class)
+                .build());
+    }
+
+    @Bean
+    public Bulkhead userServiceBulkhead(
+            @Value("${user.client.max-connections}") final int maxConnections,
+            @Value("${user.client.bulkhead.max-wait}") final Duration maxWait
+    ) {
+        return Bulkhead.of("userService", BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConnections)
+                .maxWaitDuration(maxWait)
+                .build());
+    }
+}
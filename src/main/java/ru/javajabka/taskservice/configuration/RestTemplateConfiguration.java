@@ -1,17 +1,65 @@
 package ru.javajabka.taskservice.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import ru.javajabka.taskservice.exception.RestTemplateResponseErrorHandler;
+import java.time.Duration;
 
 @Configuration
 public class RestTemplateConfiguration {
 
+    /**
+     * Общий пул HTTP-соединений приложения: через него ходят сервис пользователей и webhook событий задач.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient userServiceHttpClient(
+            @Value("${user.client.max-connections}") final int maxConnections,
+            @Value("${user.client.connect-timeout}") final Duration connectTimeout,
+            @Value("${user.client.read-timeout}") final Duration readTimeout,
+            @Value("${user.client.keep-alive}") final Duration keepAlive,
+            final MeterRegistry meterRegistry
+    ) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(keepAlive.toMillis()))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "userService").bindTo(meterRegistry);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAlive.toMillis()))
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAlive.toMillis()))
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate(RestTemplateResponseErrorHandler errorHandler) {
-        RestTemplate restTemplate = new RestTemplate();
+    public RestTemplate restTemplate(
+            final RestTemplateResponseErrorHandler errorHandler,
+            final CloseableHttpClient userServiceHttpClient,
+            @Value("${user.client.connect-timeout}") final Duration connectTimeout
+    ) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(userServiceHttpClient);
+        requestFactory.setConnectionRequestTimeout(connectTimeout);
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
         restTemplate.setErrorHandler(errorHandler);
         return restTemplate;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package ru.javajabka.taskservice.configuration;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import ru.javajabka.taskservice.model.ApiError;
+import ru.javajabka.taskservice.model.IdempotentResponse;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskBatchResult;
+import ru.javajabka.taskservice.model.TaskChange;
+import ru.javajabka.taskservice.model.TaskEvent;
+import ru.javajabka.taskservice.model.TaskImportResult;
+import ru.javajabka.taskservice.model.TaskPage;
+import ru.javajabka.taskservice.model.TaskRequestDTO;
+import ru.javajabka.taskservice.model.TaskStats;
+import ru.javajabka.taskservice.model.TaskTreeStats;
+import ru.javajabka.taskservice.model.TaskUpdateDTO;
+import ru.javajabka.taskservice.model.User;
+
+/**
+ * Подсказки для native image. Spring AOT сам находит типы из сигнатур контроллеров, но модели также
+ * проходят через MappingJacksonValue, StreamingResponseBody, SseEmitter, outbox и RestTemplate, где тип не виден.
+ * Jackson создаёт модели через package-private конструктор, который генерирует Lombok @Builder,
+ * поэтому регистрируются объявленные конструкторы, а не только публичные.
+ */
+public class TaskRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] MODELS = {
+            Task.class, TaskPage.class, TaskRequestDTO.class, TaskUpdateDTO.class, TaskBatchResult.class,
+            TaskImportResult.class, TaskStats.class, TaskTreeStats.class, TaskChange.class, TaskEvent.class,
+            IdempotentResponse.class, ApiError.class, User.class
+    };
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(final RuntimeHints hints, final ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(), MODELS);
+        for (Class<?> model : MODELS) {
+            hints.reflection().registerType(model, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+        hints.reflection().registerType(JacksonConfiguration.TaskFieldsMixIn.class);
+    }
+}
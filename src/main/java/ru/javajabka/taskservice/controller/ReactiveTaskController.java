@@ -0,0 +1,109 @@
+package ru.javajabka.taskservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskPage;
+import ru.javajabka.taskservice.model.TaskRequestDTO;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.model.TaskUpdateDTO;
+import ru.javajabka.taskservice.service.ReactiveTaskService;
+import java.util.Optional;
+
+/**
+ * API задач для профиля reactive. Пакетные операции, статистика, поток изменений и Idempotency-Key
+ * доступны только в обычном режиме.
+ */
+@RestController
+@Profile("reactive")
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/task")
+@Tag(name = "Задача")
+public class ReactiveTaskController {
+
+    private final ReactiveTaskService reactiveTaskService;
+
+    @PostMapping
+    @Operation(summary = "Создать задачу")
+    public Mono<Task> create(@RequestBody final TaskRequestDTO taskRequest) {
+        return reactiveTaskService.create(taskRequest);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Получить задачу")
+    public Mono<ResponseEntity<Task>> get(@PathVariable final Long id, final ServerWebExchange exchange) {
+        Mono<Boolean> notModified = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH) == null
+                ? Mono.just(false)
+                : reactiveTaskService.getVersion(id).map(version -> exchange.checkNotModified(TaskETag.of(id, version)));
+
+        return notModified.flatMap(isNotModified -> isNotModified
+                ? Mono.empty()
+                : reactiveTaskService.getById(id).map(task -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noCache())
+                        .eTag(TaskETag.of(task))
+                        .body(task)));
+    }
+
+    @PatchMapping
+    @Operation(summary = "Обновить задачу")
+    public Mono<ResponseEntity<Task>> update(
+            @RequestBody final TaskUpdateDTO taskUpdateDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch
+    ) {
+        return Mono.fromCallable(() -> Optional.ofNullable(TaskETag.parseVersion(ifMatch, taskUpdateDTO.getId())))
+                .flatMap(expectedVersion -> reactiveTaskService.update(taskUpdateDTO, expectedVersion.orElse(null)))
+                .map(task -> ResponseEntity.ok()
+                        .eTag(TaskETag.of(task))
+                        .body(task));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Удалить задачу")
+    public Mono<ResponseEntity<Void>> delete(
+            @PathVariable final Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch
+    ) {
+        return Mono.fromCallable(() -> Optional.ofNullable(TaskETag.parseVersion(ifMatch, id)))
+                .flatMap(expectedVersion -> reactiveTaskService.delete(id, expectedVersion.orElse(null)))
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+
+    @GetMapping
+    @Operation(summary = "Поиск задач")
+    public Mono<ResponseEntity<TaskPage>> findAll(
+            @RequestParam(required = false) final String q,
+            @RequestParam(required = false) final Optional<TaskStatus> status,
+            @RequestParam(required = false) final Optional<Long> assignee,
+            @RequestParam(required = false) final String cursor,
+            @RequestParam(defaultValue = "50") final int limit
+    ) {
+        Mono<TaskPage> page = StringUtils.hasText(q)
+                ? reactiveTaskService.search(q, status, assignee, cursor, limit)
+                : reactiveTaskService.getAll(status, assignee, cursor, limit);
+
+        return page.map(taskPage -> ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(TaskETag.of(taskPage))
+                .body(taskPage));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Потоковая выгрузка задач в формате NDJSON")
+    public Flux<Task> streamAll(
+            @RequestParam(required = false) final Optional<TaskStatus> status,
+            @RequestParam(required = false) final Optional<Long> assignee
+    ) {
+        return reactiveTaskService.streamAll(status, assignee);
+    }
+}
@@ -1,49 +1,321 @@
 package ru.javajabka.taskservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.model.TaskBatchResult;
+import ru.javajabka.taskservice.model.TaskImportResult;
+import ru.javajabka.taskservice.model.TaskPage;
 import ru.javajabka.taskservice.model.TaskUpdateDTO;
 import ru.javajabka.taskservice.model.TaskRequestDTO;
 import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskField;
+import ru.javajabka.taskservice.model.TaskStats;
 import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.model.TaskTreeStats;
+import ru.javajabka.taskservice.service.IdempotencyService;
+import ru.javajabka.taskservice.service.TaskChangeFeed;
+import ru.javajabka.taskservice.service.TaskCopyService;
+import ru.javajabka.taskservice.service.TaskGraphService;
 import ru.javajabka.taskservice.service.TaskService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
+@Profile("!reactive")
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/task")
 @Tag(name = "Задача")
 public class TaskController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final TaskService taskService;
+    private final TaskChangeFeed taskChangeFeed;
+    private final IdempotencyService idempotencyService;
+    private final TaskCopyService taskCopyService;
+    private final TaskGraphService taskGraphService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @Operation(summary = "Создать задачу")
-    public Task create(@RequestBody final TaskRequestDTO taskRequest) {
-        return taskService.create(taskRequest);
+    public Task create(
+            @RequestBody final TaskRequestDTO taskRequest,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) final String idempotencyKey
+    ) {
+        if (idempotencyKey == null) {
+            return taskService.create(taskRequest);
+        }
+        return idempotencyService.execute(
+                idempotencyKey,
+                "create",
+                taskRequest,
+                Task.class,
+                () -> taskService.validate(taskRequest),
+                () -> taskService.create(taskRequest));
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Создать пакет задач")
+    public List<TaskBatchResult> createBatch(@RequestBody final List<TaskRequestDTO> taskRequests) {
+        return taskService.createBatch(taskRequests);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Получить задачу")
-    public Task get(@PathVariable final Long id) {
-        return taskService.getById(id);
+    public ResponseEntity<MappingJacksonValue> get(
+            @PathVariable final Long id,
+            @RequestParam(required = false) final String fields,
+            final WebRequest request
+    ) {
+        Set<TaskField> taskFields = TaskFields.parse(fields);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(TaskETag.of(id, taskService.getVersion(id)))) {
+            return null;
+        }
+
+        Task task = taskService.getById(id, taskFields);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(TaskETag.of(task))
+                .body(TaskFields.filter(task, taskFields));
     }
 
     @PatchMapping
     @Operation(summary = "Обновить задачу")
-    public Task update(@RequestBody final TaskUpdateDTO taskUpdateDTO) {
-        return taskService.update(taskUpdateDTO);
+    public ResponseEntity<Task> update(
+            @RequestBody final TaskUpdateDTO taskUpdateDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) final String idempotencyKey
+    ) {
+        Long expectedVersion = TaskETag.parseVersion(ifMatch, taskUpdateDTO.getId());
+        Task task = idempotencyKey == null
+                ? taskService.update(taskUpdateDTO, expectedVersion)
+                : idempotencyService.execute(
+                        idempotencyKey,
+                        "update",
+                        Arrays.asList(taskUpdateDTO, expectedVersion),
+                        Task.class,
+                        () -> taskService.validate(taskUpdateDTO),
+                        () -> taskService.update(taskUpdateDTO, expectedVersion));
+        return ResponseEntity.ok()
+                .eTag(TaskETag.of(task))
+                .body(task);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Удалить задачу")
+    public ResponseEntity<Void> delete(
+            @PathVariable final Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch
+    ) {
+        taskService.delete(id, TaskETag.parseVersion(ifMatch, id));
+        return ResponseEntity.noContent().build();
+    }
+
+    @PatchMapping("/batch")
+    @Operation(summary = "Обновить пакет задач")
+    public List<TaskBatchResult> updateBatch(@RequestBody final List<TaskUpdateDTO> taskUpdates) {
+        return taskService.updateBatch(taskUpdates);
     }
 
     @GetMapping
     @Operation(summary = "Поиск задач")
-    public List<Task> findAll(
+    public ResponseEntity<MappingJacksonValue> findAll(
+            @RequestParam(required = false) final String q,
+            @RequestParam(required = false) final Optional<TaskStatus> status,
+            @RequestParam(required = false) final Optional<Long> assignee,
+            @RequestParam(required = false) final String cursor,
+            @RequestParam(defaultValue = "50") final int limit,
+            @RequestParam(required = false) final String fields,
+            final WebRequest request
+    ) {
+        Set<TaskField> taskFields = TaskFields.parse(fields);
+        if (StringUtils.hasText(q)) {
+            if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                    && request.checkNotModified(TaskETag.of(taskService.searchVersions(q, status, assignee, cursor, limit)))) {
+                return null;
+            }
+
+            TaskPage page = taskService.search(q, status, assignee, cursor, limit, taskFields);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .eTag(TaskETag.of(page))
+                    .body(TaskFields.filter(page, taskFields));
+        }
+
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(TaskETag.of(taskService.getAllVersions(status, assignee, cursor, limit)))) {
+            return null;
+        }
+
+        TaskPage page = taskService.getAll(status, assignee, cursor, limit, taskFields);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(TaskETag.of(page))
+                .body(TaskFields.filter(page, taskFields));
+    }
+
+    @GetMapping("/{id}/subtree")
+    @Operation(summary = "Задача со всеми подзадачами")
+    public List<Task> getSubtree(@PathVariable final Long id, @RequestParam(required = false) final Integer depth) {
+        return taskGraphService.getSubtree(id, depth);
+    }
+
+    @GetMapping("/{id}/subtree/stats")
+    @Operation(summary = "Количество задач по статусу в поддереве")
+    public TaskTreeStats getSubtreeStats(@PathVariable final Long id) {
+        return taskGraphService.getSubtreeStats(id);
+    }
+
+    @PutMapping("/{id}/parent/{parentId}")
+    @Operation(summary = "Сделать задачу подзадачей")
+    public ResponseEntity<Task> setParent(@PathVariable final Long id, @PathVariable final Long parentId) {
+        Task task = taskGraphService.setParent(id, parentId);
+        return ResponseEntity.ok()
+                .eTag(TaskETag.of(task))
+                .body(task);
+    }
+
+    @DeleteMapping("/{id}/parent")
+    @Operation(summary = "Перенести подзадачу на верхний уровень")
+    public ResponseEntity<Task> removeParent(@PathVariable final Long id) {
+        Task task = taskGraphService.setParent(id, null);
+        return ResponseEntity.ok()
+                .eTag(TaskETag.of(task))
+                .body(task);
+    }
+
+    @GetMapping("/{id}/blocked-by")
+    @Operation(summary = "Задачи, которых ждёт задача, включая косвенные зависимости")
+    public List<Task> getBlockedBy(@PathVariable final Long id) {
+        return taskGraphService.getBlockedBy(id);
+    }
+
+    @GetMapping("/{id}/blocking")
+    @Operation(summary = "Задачи, которые ждут задачу, включая косвенные зависимости")
+    public List<Task> getBlocking(@PathVariable final Long id) {
+        return taskGraphService.getBlocking(id);
+    }
+
+    @PutMapping("/{id}/blocked-by/{blockedById}")
+    @Operation(summary = "Добавить зависимость от задачи")
+    public ResponseEntity<Void> addDependency(@PathVariable final Long id, @PathVariable final Long blockedById) {
+        taskGraphService.addDependency(id, blockedById);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}/blocked-by/{blockedById}")
+    @Operation(summary = "Удалить зависимость от задачи")
+    public ResponseEntity<Void> removeDependency(@PathVariable final Long id, @PathVariable final Long blockedById) {
+        taskGraphService.removeDependency(id, blockedById);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Статистика задач")
+    public TaskStats getStats() {
+        return taskService.getStats();
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Поток изменений задач (Server-Sent Events)")
+    public SseEmitter changes(
+            @RequestParam(required = false) final Optional<TaskStatus> status,
+            @RequestParam(required = false) final Optional<Long> assignee,
+            @RequestHeader(value = "Last-Event-ID", required = false) final Long lastEventId
+    ) {
+        return taskChangeFeed.subscribe(status, assignee, lastEventId);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Потоковая выгрузка задач в формате NDJSON")
+    public ResponseEntity<StreamingResponseBody> streamAll(
             @RequestParam(required = false) final Optional<TaskStatus> status,
             @RequestParam(required = false) final Optional<Long> assignee
     ) {
-        return taskService.getAll(status, assignee);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(ndjson(status, assignee));
+    }
+
+    /**
+     * CSV выгружается через COPY. NDJSON - та же потоковая выгрузка, что и /stream, без фильтров.
+     */
+    @GetMapping(value = "/export", produces = {TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Выгрузка всех задач в формате CSV или NDJSON")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "csv") final String format) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new BadRequestException("Формат выгрузки должен быть csv или ndjson");
+        }
+
+        StreamingResponseBody body = csv ? taskCopyService::exportCsv : ndjson(Optional.empty(), Optional.empty());
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType(TEXT_CSV_VALUE) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "tasks.csv" : "tasks.ndjson")
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    @Operation(summary = "Загрузка задач из CSV через COPY")
+    public TaskImportResult importCsv(final InputStream body) {
+        return taskCopyService.importCsv(body);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Загрузка задач из NDJSON через COPY")
+    public TaskImportResult importNdjson(final InputStream body) {
+        return taskCopyService.importNdjson(body);
+    }
+
+    /**
+     * Задачи по одной на строку: каждая пишется в ответ сразу после чтения из базы.
+     */
+    private StreamingResponseBody ndjson(final Optional<TaskStatus> status, final Optional<Long> assignee) {
+        return outputStream -> {
+            try (SequenceWriter writer = objectMapper.writer()
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                taskService.streamAll(status, assignee, task -> write(writer, task));
+            }
+        };
+    }
+
+    private void write(final SequenceWriter writer, final Task task) {
+        try {
+            writer.write(task);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package ru.javajabka.taskservice.controller;
+
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.exception.PreconditionFailedException;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskPage;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ETag задачи вида W/"id-version": версия меняется при каждом обновлении задачи.
+ * ETag слабый, потому что одна и та же версия отдаётся в JSON, Smile и CBOR, целиком или с fields=,
+ * и байты этих представлений различаются. Слабый ETag страницы поиска считается по id и версиям задач на странице.
+ */
+final class TaskETag {
+
+    private TaskETag() {
+    }
+
+    static String of(final Task task) {
+        return of(task.getId(), task.getVersion());
+    }
+
+    static String of(final Long id, final Long version) {
+        return String.format("W/\"%d-%d\"", id, version);
+    }
+
+    /**
+     * ETag страницы поиска: меняется, если изменился состав страницы или версия любой задачи на ней.
+     * ETag слабый: страница отдаётся в разных форматах и со сжатием, а Tomcat не сжимает ответы с сильным ETag.
+     */
+    static String of(final TaskPage page) {
+        StringBuilder versions = new StringBuilder();
+        for (Task task : page.getItems()) {
+            versions.append(task.getId()).append('-').append(task.getVersion()).append(';');
+        }
+        versions.append(page.getNextCursor());
+        return String.format("W/\"page-%s\"", DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Возвращает версию из заголовка If-Match или null, если заголовок не передан или равен "*".
+     * Сравнивается только версия задачи, поэтому слабый ETag, полученный от сервиса, тоже принимается.
+     */
+    static Long parseVersion(final String ifMatch, final Long id) {
+        if (!StringUtils.hasText(ifMatch) || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+
+        value = value.replace("\"", "");
+        int separator = value.lastIndexOf('-');
+        try {
+            if (separator < 0 || !Long.valueOf(value.substring(0, separator)).equals(id)) {
+                throw new PreconditionFailedException(String.format("ETag %s не относится к задаче с id %d", ifMatch, id));
+            }
+            return Long.valueOf(value.substring(separator + 1));
+        } catch (NumberFormatException exc) {
+            throw new BadRequestException(String.format("Некорректный ETag %s", ifMatch));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.javajabka.taskservice.controller;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.StringUtils;
+import ru.javajabka.taskservice.configuration.JacksonConfiguration;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.model.TaskField;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Параметр fields: список полей задачи через запятую, например fields=id,title,status,assignee.
+ * Без параметра возвращаются все поля.
+ */
+final class TaskFields {
+
+    private TaskFields() {
+    }
+
+    static Set<TaskField> parse(final String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return TaskField.ALL;
+        }
+
+        Set<TaskField> parsed = EnumSet.noneOf(TaskField.class);
+        for (String property : StringUtils.commaDelimitedListToStringArray(fields)) {
+            String name = property.trim();
+            parsed.add(TaskField.ofProperty(name)
+                    .orElseThrow(() -> new BadRequestException(String.format("Неизвестное поле задачи %s", name))));
+        }
+        return parsed;
+    }
+
+    /**
+     * Оборачивает ответ так, чтобы у задач сериализовались только запрошенные поля и ранг поиска.
+     */
+    static MappingJacksonValue filter(final Object body, final Set<TaskField> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields.containsAll(TaskField.ALL)) {
+            return value;
+        }
+
+        Set<String> properties = new HashSet<>();
+        fields.forEach(field -> properties.add(field.getProperty()));
+        properties.add("rank");
+        value.setFilters(new SimpleFilterProvider()
+                .addFilter(JacksonConfiguration.TASK_FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(properties)));
+        return value;
+    }
+}
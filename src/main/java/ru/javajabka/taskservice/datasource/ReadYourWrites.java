@@ -0,0 +1,133 @@
+package ru.javajabka.taskservice.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Чтение своих записей на уровне сессии клиента. После коммита записи клиент получает cookie task-lsn
+ * с позицией WAL основной базы и возвращает её со следующими запросами. Чтение такой сессии идёт только на реплики,
+ * которые уже применили эту позицию, иначе на основную базу (см. ReplicaDataSource).
+ * Cookie общая для всех экземпляров сервиса, поэтому запись на одном экземпляре видна при чтении через любой другой.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class ReadYourWrites {
+
+    static final String COOKIE = "task-lsn";
+
+    private static final String SESSION_LSN = ReadYourWrites.class.getName() + ".SESSION_LSN";
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private final Optional<ReplicaDataSource> replicaDataSource;
+
+    /**
+     * Вызывается в транзакции записи. Без реплик или вне HTTP-запроса ничего не делает.
+     */
+    public void written() {
+        if (replicaDataSource.isEmpty() || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+
+        afterCommit(() -> {
+            try {
+                remember(attributes, replicaDataSource.get().currentLsn());
+            } catch (RuntimeException exc) {
+                log.warn("Не удалось получить позицию WAL после записи, следующие чтения сессии могут отстать", exc);
+            }
+        });
+    }
+
+    /**
+     * Выполняет чтение на основной базе. Должно быть первым запросом транзакции: соединение выбирается при первом запросе.
+     */
+    public <T> T primary(final Supplier<T> query) {
+        if (PRIMARY.get() != null) {
+            return query.get();
+        }
+
+        PRIMARY.set(true);
+        try {
+            return query.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    static boolean isPrimaryRequired() {
+        return PRIMARY.get() != null;
+    }
+
+    /**
+     * Позиция WAL последней записи сессии или 0, если сессия ничего не записывала.
+     * Нечитаемая cookie не мешает чтению и считается отсутствующей.
+     */
+    static long sessionLsn() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return 0;
+        }
+        return sessionLsn(attributes);
+    }
+
+    private static long sessionLsn(final ServletRequestAttributes attributes) {
+        Long lsn = (Long) attributes.getAttribute(SESSION_LSN, RequestAttributes.SCOPE_REQUEST);
+        if (lsn == null) {
+            lsn = parseCookie(WebUtils.getCookie(attributes.getRequest(), COOKIE));
+            attributes.setAttribute(SESSION_LSN, lsn, RequestAttributes.SCOPE_REQUEST);
+        }
+        return lsn;
+    }
+
+    private static long parseCookie(final Cookie cookie) {
+        if (cookie == null) {
+            return 0;
+        }
+
+        try {
+            return ReplicaDataSource.parseLsn(cookie.getValue());
+        } catch (RuntimeException exc) {
+            return 0;
+        }
+    }
+
+    private static void remember(final ServletRequestAttributes attributes, final String lsn) {
+        attributes.setAttribute(SESSION_LSN, Math.max(sessionLsn(attributes), ReplicaDataSource.parseLsn(lsn)), RequestAttributes.SCOPE_REQUEST);
+
+        HttpServletResponse response = attributes.getResponse();
+        if (response != null && !response.isCommitted()) {
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, lsn)
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+        }
+    }
+
+    private static void afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
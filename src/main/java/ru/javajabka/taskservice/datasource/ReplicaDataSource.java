@@ -0,0 +1,164 @@
+package ru.javajabka.taskservice.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Источник соединений для read-only транзакций: реплики по очереди (round-robin), только исправные.
+ * Если исправных реплик нет или все отказали, соединение берётся с основной базы.
+ * Реплика исправна, если отвечает и отстаёт от основной базы не больше чем на maxLagBytes WAL.
+ * Для сессии с недавней записью (см. ReadYourWrites) подходят только реплики, которые уже применили эту запись.
+ */
+@Log4j2
+public class ReplicaDataSource extends AbstractDataSource implements Closeable {
+
+    private static final String PRIMARY_LSN = "SELECT pg_current_wal_lsn()::text";
+    private static final String REPLICA_LSN = "SELECT pg_last_wal_replay_lsn()::text";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagBytes;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaDataSource(
+            final DataSource primary,
+            final Map<String, DataSource> replicas,
+            final long maxLagBytes,
+            final MeterRegistry meterRegistry
+    ) {
+        this.primary = primary;
+        this.maxLagBytes = maxLagBytes;
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            Gauge.builder("task.replica.lag", replica, r -> r.lagBytes)
+                    .tag("replica", name)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("task.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * Позиция WAL основной базы. После коммита она не меньше позиции записи о коммите.
+     */
+    public String currentLsn() {
+        return new JdbcTemplate(primary).queryForObject(PRIMARY_LSN, (rs, rowNum) -> rs.getString(1));
+    }
+
+    /**
+     * Сравнивает позицию WAL основной базы с позицией, до которой дошла каждая реплика.
+     * Для базы, которая не является репликой (например, отдельный экземпляр в тестах), отставание считается нулевым.
+     */
+    public void checkHealth() {
+        long primaryLsn = parseLsn(currentLsn());
+        for (Replica replica : replicas) {
+            try {
+                String replayLsn = new JdbcTemplate(replica.dataSource).queryForObject(REPLICA_LSN, (rs, rowNum) -> rs.getString(1));
+                replica.replayLsn = replayLsn == null ? Long.MAX_VALUE : parseLsn(replayLsn);
+                replica.lagBytes = replayLsn == null ? 0 : Math.max(primaryLsn - replica.replayLsn, 0);
+                if (replica.lagBytes > maxLagBytes) {
+                    markUnhealthy(replica, String.format("отставание %d байт", replica.lagBytes));
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("Реплика {} снова используется для чтения", replica.name);
+                }
+            } catch (RuntimeException exc) {
+                markUnhealthy(replica, exc.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Позиция WAL в текстовом виде PostgreSQL (16/B374D848) как число байт от начала WAL.
+     */
+    public static long parseLsn(final String lsn) {
+        int slash = lsn.indexOf('/');
+        return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+
+    /**
+     * Реплика подходит, если она исправна и, по последней проверке, уже применила запись сессии.
+     * Пока проверка не увидела эту позицию, чтение сессии идёт на основную базу: не дольше health-check-interval.
+     */
+    private Connection getConnection(final ConnectionSource source) throws SQLException {
+        if (ReadYourWrites.isPrimaryRequired() || replicas.isEmpty()) {
+            return source.get(primary);
+        }
+
+        long sessionLsn = ReadYourWrites.sessionLsn();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy || replica.replayLsn < sessionLsn) {
+                continue;
+            }
+
+            try {
+                return source.get(replica.dataSource);
+            } catch (SQLException exc) {
+                markUnhealthy(replica, exc.getMessage());
+            }
+        }
+        return source.get(primary);
+    }
+
+    private void markUnhealthy(final Replica replica, final String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Реплика {} исключена из чтения: {}", replica.name, reason);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile long lagBytes;
+        private volatile long replayLsn;
+
+        private Replica(final String name, final DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.javajabka.taskservice.exception;
 
 import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -18,6 +19,22 @@ public class ExceptionController {
                 body(new ApiError(e.getMessage()));
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiError> handlePreconditionFailedException(PreconditionFailedException e) {
+        log.error(e.getMessage());
+        return ResponseEntity.
+                status(HttpStatus.PRECONDITION_FAILED).
+                body(new ApiError(e.getMessage()));
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiError> handleServiceUnavailableException(ServiceUnavailableException e) {
+        log.error(e.getMessage());
+        return ResponseEntity.
+                status(HttpStatus.SERVICE_UNAVAILABLE).
+                body(new ApiError(e.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleException(Exception e) {
         log.error(e.getMessage());
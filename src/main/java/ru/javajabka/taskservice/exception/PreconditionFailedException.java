@@ -0,0 +1,7 @@
+package ru.javajabka.taskservice.exception;
+
+public class PreconditionFailedException extends RuntimeException{
+    public PreconditionFailedException(final String message) {
+        super(message);
+    }
+}
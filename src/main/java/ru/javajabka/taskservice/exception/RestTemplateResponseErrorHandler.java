@@ -2,6 +2,7 @@ package ru.javajabka.taskservice.exception;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.client.ClientHttpResponse;
@@ -12,20 +13,28 @@ import java.net.URI;
 
 @Component
 @Log4j2
+@RequiredArgsConstructor
 public class RestTemplateResponseErrorHandler implements ResponseErrorHandler {
 
+    private final ObjectMapper objectMapper;
+
     @Override
     public boolean hasError(ClientHttpResponse response) throws IOException {
-        return response.getStatusCode().is4xxClientError();
+        return response.getStatusCode().isError();
     }
 
+    /**
+     * 4xx - ошибка запроса, её текст отдаётся клиенту как есть.
+     * 5xx - отказ сервиса пользователей: исключение учитывается circuit breaker и превращается в 503.
+     */
     @Override
     public void handleError(URI url, HttpMethod method, ClientHttpResponse response) throws IOException {
         if (response.getStatusCode().is4xxClientError()) {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode error = mapper.readTree(response.getBody().readAllBytes());
+            JsonNode error = objectMapper.readTree(response.getBody().readAllBytes());
             log.error(error.get("message").asText());
             throw new BadRequestException(error.get("message").asText());
         }
+        log.error("Сервис пользователей ответил {} на {} {}", response.getStatusCode(), method, url);
+        throw new ServiceUnavailableException("Сервис пользователей недоступен, повторите запрос позже");
     }
 }
\ No newline at end of file
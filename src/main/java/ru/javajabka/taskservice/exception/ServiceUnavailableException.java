@@ -0,0 +1,7 @@
+package ru.javajabka.taskservice.exception;
+
+public class ServiceUnavailableException extends RuntimeException{
+    public ServiceUnavailableException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,26 @@
+package ru.javajabka.taskservice.job;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.javajabka.taskservice.repository.IdempotencyKeyRepository;
+
+/**
+ * Удаляет ключи идемпотентности с истёкшим сроком пачками, чтобы не держать долгих блокировок.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeyCleanupJob {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Scheduled(initialDelayString = "${task.idempotency.cleanup-interval}", fixedDelayString = "${task.idempotency.cleanup-interval}")
+    public void deleteExpired() {
+        int deleted;
+        do {
+            deleted = idempotencyKeyRepository.deleteExpired(BATCH_SIZE);
+        } while (deleted == BATCH_SIZE);
+    }
+}
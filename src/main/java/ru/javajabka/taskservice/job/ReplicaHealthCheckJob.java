@@ -0,0 +1,23 @@
+package ru.javajabka.taskservice.job;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.javajabka.taskservice.datasource.ReplicaDataSource;
+
+/**
+ * Проверяет доступность и отставание реплик, отстающие реплики не используются для чтения до следующей проверки.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty("task.replica.urls")
+public class ReplicaHealthCheckJob {
+
+    private final ReplicaDataSource replicaDataSource;
+
+    @Scheduled(fixedDelayString = "${task.replica.health-check-interval}")
+    public void checkHealth() {
+        replicaDataSource.checkHealth();
+    }
+}
@@ -0,0 +1,42 @@
+package ru.javajabka.taskservice.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.javajabka.taskservice.repository.TaskServiceRepository;
+import java.time.Duration;
+
+/**
+ * Переносит удалённые задачи старше task.archive.retention в task_archive небольшими пачками,
+ * чтобы они не занимали место в таблице и индексах активных задач.
+ * Пачки выбираются, пока переносится хоть что-то: архивирование подзадач открывает путь их родителям.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class TaskArchiveJob {
+
+    private final TaskServiceRepository taskServiceRepository;
+
+    @Value("${task.archive.retention}")
+    private Duration retention;
+
+    @Value("${task.archive.batch-size}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${task.archive.interval}", fixedDelayString = "${task.archive.interval}")
+    public void archive() {
+        int total = 0;
+        int archived;
+        do {
+            archived = taskServiceRepository.archiveDeleted(retention, batchSize);
+            total += archived;
+        } while (archived > 0);
+
+        if (total > 0) {
+            log.info("Перенесено в архив удалённых задач: {}", total);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.javajabka.taskservice.job;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.javajabka.taskservice.repository.TaskChangeRepository;
+
+/**
+ * Ограничивает журнал изменений задач последними task.changes.backlog-size записями.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskChangeTrimJob {
+
+    private final TaskChangeRepository taskChangeRepository;
+
+    @Value("${task.changes.backlog-size}")
+    private long backlogSize;
+
+    @Scheduled(initialDelayString = "${task.changes.trim-interval}", fixedDelayString = "${task.changes.trim-interval}")
+    public void trim() {
+        taskChangeRepository.trim(backlogSize);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.javajabka.taskservice.job;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.javajabka.taskservice.service.TaskOutboxRelay;
+
+/**
+ * Разбирает outbox событий задач, пока находятся полные пачки. Каждая пачка - отдельная транзакция.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskOutboxRelayJob {
+
+    private final TaskOutboxRelay taskOutboxRelay;
+
+    @Scheduled(fixedDelayString = "${task.outbox.interval}")
+    public void relay() {
+        int relayed;
+        do {
+            relayed = taskOutboxRelay.relay();
+        } while (relayed == taskOutboxRelay.getBatchSize());
+    }
+}
@@ -0,0 +1,45 @@
+package ru.javajabka.taskservice.job;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.javajabka.taskservice.repository.TaskServiceRepository;
+
+/**
+ * Отмечает задачи с прошедшим дедлайном. Каждая пачка обновляется отдельной короткой транзакцией,
+ * несколько экземпляров сервиса делят работу через FOR UPDATE SKIP LOCKED.
+ * Отмеченные задачи попадают в журнал изменений и рассылаются подписчикам /changes.
+ */
+@Component
+@Log4j2
+public class TaskOverdueJob {
+
+    private final TaskServiceRepository taskServiceRepository;
+    private final Counter flaggedCounter;
+
+    @Value("${task.overdue.batch-size}")
+    private int batchSize;
+
+    public TaskOverdueJob(final TaskServiceRepository taskServiceRepository, final MeterRegistry meterRegistry) {
+        this.taskServiceRepository = taskServiceRepository;
+        this.flaggedCounter = meterRegistry.counter("task.overdue.flagged");
+    }
+
+    @Scheduled(initialDelayString = "${task.overdue.interval}", fixedDelayString = "${task.overdue.interval}")
+    public void flagOverdue() {
+        int total = 0;
+        int flagged;
+        do {
+            flagged = taskServiceRepository.flagOverdue(batchSize).size();
+            flaggedCounter.increment(flagged);
+            total += flagged;
+        } while (flagged == batchSize);
+
+        if (total > 0) {
+            log.info("Отмечено просроченных задач: {}", total);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.javajabka.taskservice.job;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.javajabka.taskservice.repository.TaskStatsRepository;
+
+/**
+ * Периодически сверяет счётчики статистики с таблицей задач и исправляет расхождения.
+ * Задачи обходятся диапазонами ответственных, каждый диапазон сверяется отдельным запросом без блокировки таблицы.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class TaskStatsReconciliationJob {
+
+    private final TaskStatsRepository taskStatsRepository;
+
+    @Value("${task.stats.reconcile-range-size}")
+    private int rangeSize;
+
+    @Scheduled(initialDelayString = "${task.stats.reconcile-interval}", fixedDelayString = "${task.stats.reconcile-interval}")
+    public void reconcile() {
+        int corrected = 0;
+        long after = Long.MIN_VALUE;
+        Long last;
+        do {
+            last = taskStatsRepository.getAssigneeRangeEnd(after, rangeSize);
+            long upper = last == null ? Long.MAX_VALUE : last;
+            corrected += taskStatsRepository.reconcile(after, upper);
+            after = upper;
+        } while (last != null);
+        taskStatsRepository.deleteEmptyCounters();
+
+        if (corrected > 0) {
+            log.warn("Исправлено {} счётчиков статистики задач", corrected);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.javajabka.taskservice.model;
+
+import lombok.Builder;
+import lombok.Data;
+import java.time.Instant;
+
+/**
+ * Сохранённый ответ на запрос с ключом идемпотентности, хэш запроса, на который он был дан, и срок хранения ключа.
+ */
+@Data
+@Builder
+public class IdempotentResponse {
+    private final String requestHash;
+    private final String response;
+    private final Instant expiresAt;
+}
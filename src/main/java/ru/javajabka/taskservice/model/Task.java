@@ -1,5 +1,6 @@
 package ru.javajabka.taskservice.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 import java.time.LocalDate;
@@ -18,4 +19,19 @@ public class Task {
     private Long assignee;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
+    private LocalDateTime overdueAt;
+    private Long parentId;
+
+    /**
+     * Релевантность задачи поисковому запросу, заполняется только в результатах поиска.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Float rank;
+
+    /**
+     * Глубина задачи в поддереве или расстояние по цепочке зависимостей, заполняется только в ответах этих запросов.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer depth;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package ru.javajabka.taskservice.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TaskBatchResult {
+    private final int index;
+    private final boolean success;
+    private final Task task;
+    private final String message;
+}
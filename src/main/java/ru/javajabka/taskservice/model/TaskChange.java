@@ -0,0 +1,16 @@
+package ru.javajabka.taskservice.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Состояние задачи после создания или изменения, номер изменения в журнале task_change
+ * и номер транзакции, которая его записала.
+ */
+@Data
+@Builder
+public class TaskChange {
+    private final long seq;
+    private final long xid;
+    private final Task task;
+}
@@ -0,0 +1,23 @@
+package ru.javajabka.taskservice.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Builder;
+import lombok.Data;
+import java.time.Instant;
+
+/**
+ * Событие задачи из outbox: TASK_CREATED, TASK_STATUS_CHANGED, TASK_ASSIGNED или TASK_MOVED.
+ * payload - JSON с состоянием задачи после изменения и предыдущим статусом, ответственным или родителем.
+ */
+@Data
+@Builder
+public class TaskEvent {
+    private final long id;
+    private final String type;
+    private final long taskId;
+    private final Instant createdAt;
+    private final int attempts;
+
+    @JsonRawValue
+    private final String payload;
+}
@@ -0,0 +1,48 @@
+package ru.javajabka.taskservice.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Поля задачи, которые можно запросить через параметр fields: имя свойства в JSON и колонка в таблице task.
+ */
+public enum TaskField {
+
+    ID("id", "id"),
+    TITLE("title", "title"),
+    DESCRIPTION("description", "description"),
+    STATUS("status", "status"),
+    DEAD_LINE("deadLine", "dead_line"),
+    AUTHOR("author", "author"),
+    ASSIGNEE("assignee", "assignee"),
+    CREATED_AT("createdAt", "created_at"),
+    UPDATED_AT("updatedAt", "updated_at"),
+    VERSION("version", "version"),
+    OVERDUE_AT("overdueAt", "overdue_at"),
+    PARENT_ID("parentId", "parent_id");
+
+    public static final Set<TaskField> ALL = Collections.unmodifiableSet(EnumSet.allOf(TaskField.class));
+
+    private final String property;
+    private final String column;
+
+    TaskField(final String property, final String column) {
+        this.property = property;
+        this.column = column;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public static Optional<TaskField> ofProperty(final String property) {
+        return Arrays.stream(values()).filter(field -> field.property.equals(property)).findFirst();
+    }
+}
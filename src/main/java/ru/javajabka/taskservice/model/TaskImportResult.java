@@ -0,0 +1,18 @@
+package ru.javajabka.taskservice.model;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@Builder
+public class TaskImportResult {
+    private final long imported;
+    private final long rejected;
+
+    /**
+     * Отклонённые строки: index - номер строки данных в файле, начиная с 1.
+     * Возвращаются только первые строки, общее число отклонённых - в rejected.
+     */
+    private final List<TaskBatchResult> errors;
+}
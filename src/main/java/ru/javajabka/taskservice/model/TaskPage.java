@@ -0,0 +1,12 @@
+package ru.javajabka.taskservice.model;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@Builder
+public class TaskPage {
+    private final List<Task> items;
+    private final String nextCursor;
+}
@@ -12,4 +12,5 @@ public class TaskRequestDTO {
     private final LocalDate deadLine;
     private final Long author;
     private final Long assignee;
+    private final Long parentId;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package ru.javajabka.taskservice.model;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.Map;
+
+@Data
+@Builder
+public class TaskStats {
+    private final Map<TaskStatus, Long> byStatus;
+    private final Map<Long, Long> byAssignee;
+    private final long overdue;
+    private final long onTime;
+}
@@ -0,0 +1,17 @@
+package ru.javajabka.taskservice.model;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.Map;
+
+/**
+ * Количество задач по статусу в поддереве, включая саму задачу. depth - глубина самой глубокой подзадачи.
+ */
+@Data
+@Builder
+public class TaskTreeStats {
+    private final Long rootId;
+    private final long total;
+    private final int depth;
+    private final Map<TaskStatus, Long> byStatus;
+}
@@ -0,0 +1,36 @@
+package ru.javajabka.taskservice.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.javajabka.taskservice.model.TaskEvent;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Пишет события задач по одному JSON в строке в лог task-events, который можно направить в отдельный файл.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "task.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogTaskEventSink implements TaskEventSink {
+
+    private static final Logger log = LogManager.getLogger("task-events");
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void publish(final List<TaskEvent> events) {
+        for (TaskEvent event : events) {
+            try {
+                log.info(objectMapper.writeValueAsString(event));
+            } catch (JsonProcessingException exc) {
+                throw new UncheckedIOException(exc);
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.javajabka.taskservice.outbox;
+
+import ru.javajabka.taskservice.model.TaskEvent;
+import java.util.List;
+
+/**
+ * Получатель событий задач из outbox. Если publish бросает исключение, вся пачка будет отправлена повторно,
+ * поэтому получатель должен переносить повторную доставку события с тем же id.
+ */
+public interface TaskEventSink {
+
+    void publish(List<TaskEvent> events);
+}
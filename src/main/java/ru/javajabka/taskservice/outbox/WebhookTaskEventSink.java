@@ -0,0 +1,44 @@
+package ru.javajabka.taskservice.outbox;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import ru.javajabka.taskservice.model.TaskEvent;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Отправляет пачку событий задач одним POST с JSON-массивом. Ответ не 2xx считается ошибкой доставки.
+ * Соединения берутся из общего пула HTTP-клиента приложения, таймаут ответа - свой.
+ */
+@Component
+@ConditionalOnProperty(name = "task.outbox.sink", havingValue = "webhook")
+public class WebhookTaskEventSink implements TaskEventSink {
+
+    private final RestTemplate restTemplate;
+    private final String url;
+
+    public WebhookTaskEventSink(
+            final RestTemplateBuilder restTemplateBuilder,
+            final CloseableHttpClient httpClient,
+            @Value("${task.outbox.webhook.url}") final String url,
+            @Value("${task.outbox.webhook.timeout}") final Duration timeout
+    ) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectionRequestTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restTemplate = restTemplateBuilder
+                .requestFactory(() -> requestFactory)
+                .build();
+        this.url = url;
+    }
+
+    @Override
+    public void publish(final List<TaskEvent> events) {
+        restTemplate.postForEntity(url, events, Void.class);
+    }
+}
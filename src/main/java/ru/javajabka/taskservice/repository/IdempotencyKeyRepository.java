@@ -0,0 +1,86 @@
+package ru.javajabka.taskservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.javajabka.taskservice.model.IdempotentResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    /**
+     * Занимает ключ или ключ с истёкшим сроком и возвращает срок его хранения. Если ключ занят незавершённой транзакцией,
+     * вставка дождётся её окончания.
+     */
+    private static final String CLAIM = """
+            INSERT INTO task_service.idempotency_key (key, request_hash, expires_at)
+            VALUES (:key, :requestHash, now() + make_interval(secs => :ttlSeconds))
+            ON CONFLICT (key) DO UPDATE
+            SET request_hash = EXCLUDED.request_hash, response = NULL, expires_at = EXCLUDED.expires_at
+            WHERE task_service.idempotency_key.expires_at < now()
+            RETURNING expires_at
+            """;
+
+    private static final String GET = """
+            SELECT request_hash, response, expires_at FROM task_service.idempotency_key
+            WHERE key = :key AND expires_at >= now()
+            """;
+
+    private static final String SAVE_RESPONSE = """
+            UPDATE task_service.idempotency_key
+            SET response = :response
+            WHERE key = :key
+            """;
+
+    private static final String DELETE_EXPIRED = """
+            DELETE FROM task_service.idempotency_key
+            WHERE key IN (
+                SELECT key FROM task_service.idempotency_key
+                WHERE expires_at < now()
+                LIMIT :limit
+            )
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Срок хранения занятого ключа или пустой результат, если ключ уже занят другим запросом.
+     */
+    public Optional<Instant> claim(final String key, final String requestHash, final Duration ttl) {
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("requestHash", requestHash)
+                .addValue("ttlSeconds", ttl.toSeconds());
+        return jdbcTemplate.query(CLAIM, parameterSource, (rs, rowNum) -> rs.getTimestamp("expires_at").toInstant())
+                .stream()
+                .findFirst();
+    }
+
+    public Optional<IdempotentResponse> get(final String key) {
+        try {
+            return Optional.ofNullable(jdbcTemplate.queryForObject(GET, new MapSqlParameterSource("key", key), (rs, rowNum) -> IdempotentResponse.builder()
+                    .requestHash(rs.getString("request_hash"))
+                    .response(rs.getString("response"))
+                    .expiresAt(rs.getTimestamp("expires_at").toInstant())
+                    .build()));
+        } catch (EmptyResultDataAccessException exc) {
+            return Optional.empty();
+        }
+    }
+
+    public void saveResponse(final String key, final String response) {
+        jdbcTemplate.update(SAVE_RESPONSE, new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("response", response));
+    }
+
+    public int deleteExpired(final int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED, new MapSqlParameterSource("limit", limit));
+    }
+}
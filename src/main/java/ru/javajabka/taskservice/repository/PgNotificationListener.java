@@ -0,0 +1,122 @@
+package ru.javajabka.taskservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Слушает каналы PostgreSQL LISTEN/NOTIFY на отдельном соединении и передаёт уведомления подписчикам.
+ * После переподключения часть уведомлений может быть потеряна, поэтому подписчик получает вызов onReconnect.
+ */
+@Component
+@Log4j2
+@RequiredArgsConstructor
+public class PgNotificationListener implements SmartLifecycle {
+
+    private static final int POLL_TIMEOUT_MILLIS = 5000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final DataSource dataSource;
+
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+    private final List<Runnable> reconnectHandlers = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public void subscribe(final String channel, final Consumer<String> onNotification, final Runnable onReconnect) {
+        handlers.computeIfAbsent(channel, e -> new CopyOnWriteArrayList<>()).add(onNotification);
+        reconnectHandlers.add(onReconnect);
+    }
+
+    @Override
+    public void start() {
+        if (handlers.isEmpty()) {
+            return;
+        }
+
+        running = true;
+        thread = Thread.ofPlatform()
+                .name("pg-notification-listener")
+                .daemon()
+                .start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    for (String channel : handlers.keySet()) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                }
+
+                if (reconnect) {
+                    reconnectHandlers.forEach(Runnable::run);
+                }
+                reconnect = true;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification);
+                        }
+                    }
+                }
+            } catch (SQLException exc) {
+                if (!running) {
+                    return;
+                }
+                log.error("Соединение для LISTEN потеряно: {}", exc.getMessage());
+                sleep();
+            }
+        }
+    }
+
+    private void dispatch(final PGNotification notification) {
+        for (Consumer<String> handler : handlers.getOrDefault(notification.getName(), List.of())) {
+            try {
+                handler.accept(notification.getParameter());
+            } catch (RuntimeException exc) {
+                log.error("Ошибка обработки уведомления {}: {}", notification.getName(), exc.getMessage());
+            }
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ru.javajabka.taskservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.exception.PreconditionFailedException;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.repository.mapper.ReactiveTaskMapper;
+import java.util.Optional;
+
+/**
+ * Реактивный вариант TaskServiceRepository на R2DBC с теми же SQL-запросами.
+ * Изменения задач так же попадают в кэш других экземпляров, статистику, журнал изменений и outbox через триггеры.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveTaskRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+    private final ReactiveTaskMapper reactiveTaskMapper;
+
+    public Mono<Task> create(final Task task) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(TaskServiceRepository.INSERT)
+                .bind("title", task.getTitle())
+                .bind("description", task.getDescription())
+                .bind("deadLine", task.getDeadLine())
+                .bind("author", task.getAuthor())
+                .bind("assignee", task.getAssignee());
+        spec = task.getParentId() == null ? spec.bindNull("parentId", Long.class) : spec.bind("parentId", task.getParentId());
+
+        return spec.map(reactiveTaskMapper)
+                .one()
+                .onErrorMap(DuplicateKeyException.class,
+                        exc -> new BadRequestException(String.format("Задача с названием %s уже существует", task.getTitle())));
+    }
+
+    public Mono<Task> getById(final Long id) {
+        return databaseClient.sql(TaskServiceRepository.GET_BY_ID)
+                .bind("id", id)
+                .map(reactiveTaskMapper)
+                .one()
+                .switchIfEmpty(Mono.error(() -> new BadRequestException(String.format("Задача с id %d не найдена", id))));
+    }
+
+    public Mono<Long> getVersion(final Long id) {
+        return databaseClient.sql(TaskServiceRepository.GET_VERSION)
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new BadRequestException(String.format("Задача с id %d не найдена", id))));
+    }
+
+    /**
+     * Обновляет только непустые поля задачи, при указанной версии - только если она совпадает с версией в базе.
+     * Изменение без полей ничего не пишет и возвращает текущую задачу.
+     */
+    public Mono<Task> update(final Task task) {
+        if (TaskServiceRepository.isEmptyPatch(task)) {
+            return getById(task.getId()).flatMap(current -> task.getVersion() == null || task.getVersion().equals(current.getVersion())
+                    ? Mono.just(current)
+                    : Mono.error(new PreconditionFailedException(
+                            String.format("Задача с id %d была изменена, текущая версия %d", task.getId(), current.getVersion()))));
+        }
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(TaskServiceRepository.updateSql(task))
+                .bind("id", task.getId());
+        if (task.getTitle() != null) {
+            spec = spec.bind("title", task.getTitle());
+        }
+        if (task.getDescription() != null) {
+            spec = spec.bind("description", task.getDescription());
+        }
+        if (task.getStatus() != null) {
+            spec = spec.bind("status", task.getStatus().toString());
+        }
+        if (task.getDeadLine() != null) {
+            spec = spec.bind("deadLine", task.getDeadLine());
+        }
+        if (task.getAssignee() != null) {
+            spec = spec.bind("assignee", task.getAssignee());
+        }
+        if (task.getVersion() != null) {
+            spec = spec.bind("version", task.getVersion());
+        }
+
+        return spec.map(reactiveTaskMapper)
+                .one()
+                .onErrorMap(DuplicateKeyException.class,
+                        exc -> new BadRequestException(String.format("Задача с названием %s уже существует", task.getTitle())))
+                .switchIfEmpty(Mono.defer(() -> task.getVersion() == null
+                        ? Mono.error(new BadRequestException(String.format("Задача с id %d не найдена", task.getId())))
+                        : getVersion(task.getId()).flatMap(version -> Mono.error(new PreconditionFailedException(
+                                String.format("Задача с id %d была изменена, текущая версия %d", task.getId(), version))))));
+    }
+
+    public Flux<Task> getAll(final Optional<TaskStatus> status, final Optional<Long> assignee, final Long afterId, final Integer limit) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(TaskServiceRepository.getAllSql(TaskServiceRepository.COLUMNS, status, assignee, afterId, limit));
+        spec = bindFilters(spec, status, assignee);
+        if (afterId != null) {
+            spec = spec.bind("afterId", afterId);
+        }
+        if (limit != null) {
+            spec = spec.bind("limit", limit);
+        }
+        return spec.filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(reactiveTaskMapper)
+                .all();
+    }
+
+    public Flux<Task> search(
+            final String query,
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final Float afterRank,
+            final Long afterId,
+            final int limit
+    ) {
+        boolean afterCursor = afterRank != null && afterId != null;
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(TaskServiceRepository.searchSql(TaskServiceRepository.COLUMNS, status, assignee, afterCursor))
+                .bind("q", query)
+                .bind("prefix", TaskServiceRepository.escapeLike(query) + "%")
+                .bind("limit", limit);
+        spec = bindFilters(spec, status, assignee);
+        if (afterCursor) {
+            spec = spec.bind("afterRank", afterRank).bind("afterId", afterId);
+        }
+
+        return spec.map(row -> {
+            Task task = reactiveTaskMapper.apply(row);
+            task.setRank(row.get("rank", Float.class));
+            return task;
+        }).all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindFilters(
+            final DatabaseClient.GenericExecuteSpec spec,
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee
+    ) {
+        DatabaseClient.GenericExecuteSpec bound = spec;
+        if (status.isPresent()) {
+            bound = bound.bind("status", status.get().toString());
+        }
+        if (assignee.isPresent()) {
+            bound = bound.bind("assignee", assignee.get());
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,106 @@
+package ru.javajabka.taskservice.repository;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import ru.javajabka.taskservice.model.Task;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Время каждого публичного метода TaskServiceRepository (task.repository.query)
+ * и распределение числа возвращённых строк (task.repository.rows) с тегом query = имя метода.
+ * Тег cache у времени отделяет ответы из TaskCache (hit) от запросов в базу после промаха (miss)
+ * и методов, которые кэш не смотрят (none): время запросов в базу - это cache != hit.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private static final ThreadLocal<String> CACHE = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * ru.javajabka.taskservice.repository.TaskServiceRepository.*(..))")
+    public Object timeQuery(final ProceedingJoinPoint joinPoint) throws Throwable {
+        String query = joinPoint.getSignature().getName();
+        String outerCache = CACHE.get();
+        CACHE.set("none");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+
+        try {
+            Object result = joinPoint.proceed();
+            recordRows(query, result);
+            return result;
+        } catch (Throwable exc) {
+            outcome = exc.getClass().getSimpleName();
+            throw exc;
+        } finally {
+            sample.stop(Timer.builder("task.repository.query")
+                    .tag("query", query)
+                    .tag("outcome", outcome)
+                    .tag("cache", CACHE.get())
+                    .register(meterRegistry));
+            if (outerCache == null) {
+                CACHE.remove();
+            } else {
+                CACHE.set(outerCache);
+            }
+        }
+    }
+
+    @Around("execution(public java.util.Optional ru.javajabka.taskservice.repository.TaskCache.getIfPresent(..))")
+    public Object cacheLookup(final ProceedingJoinPoint joinPoint) throws Throwable {
+        Optional<?> cached = (Optional<?>) joinPoint.proceed();
+        if (CACHE.get() != null) {
+            CACHE.set(cached.isPresent() ? "hit" : "miss");
+        }
+        return cached;
+    }
+
+    /**
+     * Caffeine вызывает загрузку в потоке запроса, поэтому вызов loader и есть промах.
+     */
+    @Around("execution(public * ru.javajabka.taskservice.repository.TaskCache.get(..)) && args(id, loader)")
+    public Object cacheLoad(final ProceedingJoinPoint joinPoint, final Long id, final Function<Long, Task> loader) throws Throwable {
+        if (CACHE.get() == null) {
+            return joinPoint.proceed();
+        }
+
+        CACHE.set("hit");
+        Function<Long, Task> countingLoader = key -> {
+            CACHE.set("miss");
+            return loader.apply(key);
+        };
+        return joinPoint.proceed(new Object[]{id, countingLoader});
+    }
+
+    private void recordRows(final String query, final Object result) {
+        long rows;
+        if (result instanceof Collection<?> collection) {
+            rows = collection.size();
+        } else if (result instanceof Map<?, ?> map) {
+            rows = map.size();
+        } else if (result instanceof int[] counts) {
+            rows = counts.length;
+        } else if (result instanceof Task) {
+            rows = 1;
+        } else {
+            return;
+        }
+
+        DistributionSummary.builder("task.repository.rows")
+                .tag("query", query)
+                .register(meterRegistry)
+                .record(rows);
+    }
+}
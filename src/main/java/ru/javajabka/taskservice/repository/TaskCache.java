@@ -0,0 +1,91 @@
+package ru.javajabka.taskservice.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.javajabka.taskservice.datasource.ReadYourWrites;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskStatus;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Кэш задач перед TaskServiceRepository.getById.
+ * Запись в кэш после изменения выполняется только после коммита транзакции,
+ * изменения с других экземпляров сервиса приходят через канал task_changed.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskCache {
+
+    private static final String CHANNEL = "task_changed";
+
+    private final Optional<Cache<Long, Task>> taskCache;
+    private final PgNotificationListener pgNotificationListener;
+    private final ReadYourWrites readYourWrites;
+
+    @PostConstruct
+    public void subscribe() {
+        taskCache.ifPresent(cache -> pgNotificationListener.subscribe(
+                CHANNEL,
+                id -> cache.invalidate(Long.valueOf(id)),
+                cache::invalidateAll
+        ));
+    }
+
+    /**
+     * Загрузка выполняется под блокировкой ключа, поэтому инвалидация во время загрузки
+     * дождётся её окончания и удалит устаревшее значение.
+     * В кэш задача загружается только с основной базы: строка с отстающей реплики жила бы в кэше до TTL,
+     * потому что уведомление task_changed о ней уже пришло. Без кэша loader читает там, куда направлена транзакция.
+     */
+    public Task get(final Long id, final Function<Long, Task> loader) {
+        return taskCache.map(cache -> cache.get(id, key -> readYourWrites.primary(() -> loader.apply(key))))
+                .orElseGet(() -> loader.apply(id));
+    }
+
+    public Optional<Task> getIfPresent(final Long id) {
+        return taskCache.map(cache -> cache.getIfPresent(id));
+    }
+
+    /**
+     * Удалённая задача в кэш не попадает: иначе она отдавалась бы по id до уведомления task_changed или до истечения TTL.
+     */
+    public void put(final Task task) {
+        if (task.getStatus() == TaskStatus.DELETE) {
+            evict(List.of(task.getId()));
+            return;
+        }
+
+        taskCache.ifPresent(cache -> {
+            cache.invalidate(task.getId());
+            afterCommit(() -> cache.put(task.getId(), task));
+        });
+    }
+
+    public void evict(final Collection<Long> ids) {
+        taskCache.ifPresent(cache -> {
+            cache.invalidateAll(ids);
+            afterCommit(() -> cache.invalidateAll(ids));
+        });
+    }
+
+    private void afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
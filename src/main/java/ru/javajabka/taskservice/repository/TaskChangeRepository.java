@@ -0,0 +1,156 @@
+package ru.javajabka.taskservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.javajabka.taskservice.model.TaskChange;
+import ru.javajabka.taskservice.repository.mapper.TaskServiceMapper;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Журнал изменений задач task_change. Записи добавляет триггер на task_service.task
+ * и сообщает о них в канал task_change, журнал ограничен последними записями.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskChangeRepository {
+
+    /**
+     * Транзакции с номером меньше горизонта завершены, новых изменений с такими номерами уже не появится.
+     */
+    private static final String HORIZON = "pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+    private static final String GET_AFTER = """
+            SELECT seq, xid, %s FROM task_service.task_change
+            WHERE (xid, seq) > (:afterXid, :afterSeq) AND (xid, seq) <= (:uptoXid, :uptoSeq)
+            ORDER BY xid, seq
+            LIMIT :limit
+            """.formatted(TaskServiceRepository.COLUMNS);
+
+    private static final String GET_RELEASED_AFTER = """
+            SELECT seq, xid, %s FROM task_service.task_change
+            WHERE (xid, seq) > (:afterXid, :afterSeq) AND xid < %s
+            ORDER BY xid, seq
+            LIMIT :limit
+            """.formatted(TaskServiceRepository.COLUMNS, HORIZON);
+
+    private static final String HAS_AFTER = """
+            SELECT EXISTS (SELECT 1 FROM task_service.task_change WHERE (xid, seq) > (:afterXid, :afterSeq))
+            """;
+
+    private static final String GET_HORIZON = "SELECT " + HORIZON;
+
+    private static final String GET_XID = "SELECT xid FROM task_service.task_change WHERE seq = :seq";
+
+    private static final String TRIM = """
+            WITH cutoff AS (
+                SELECT xid, seq FROM task_service.task_change
+                WHERE xid < %s
+                  AND (xid, seq) <= (
+                      SELECT xid, seq FROM task_service.task_change
+                      ORDER BY xid DESC, seq DESC
+                      OFFSET :size
+                      LIMIT 1
+                  )
+                ORDER BY xid DESC, seq DESC
+                LIMIT 1
+            ), trimmed AS (
+                UPDATE task_service.task_change_trim SET xid = cutoff.xid, seq = cutoff.seq
+                FROM cutoff
+                WHERE (cutoff.xid, cutoff.seq) > (task_change_trim.xid, task_change_trim.seq)
+                RETURNING task_change_trim.xid, task_change_trim.seq
+            )
+            DELETE FROM task_service.task_change USING trimmed
+            WHERE (task_change.xid, task_change.seq) <= (trimmed.xid, trimmed.seq)
+            """.formatted(HORIZON);
+
+    private static final String GET_TRIMMED = "SELECT xid, seq FROM task_service.task_change_trim";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TaskServiceMapper taskServiceMapper;
+
+    /**
+     * Изменения после позиции (afterXid, afterSeq) и не дальше (uptoXid, uptoSeq) в порядке номеров транзакций.
+     */
+    public List<TaskChange> getAfter(final long afterXid, final long afterSeq, final long uptoXid, final long uptoSeq, final int limit) {
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource()
+                .addValue("afterXid", afterXid)
+                .addValue("afterSeq", afterSeq)
+                .addValue("uptoXid", uptoXid)
+                .addValue("uptoSeq", uptoSeq)
+                .addValue("limit", limit);
+
+        return jdbcTemplate.query(GET_AFTER, parameterSource, this::mapChange);
+    }
+
+    /**
+     * Изменения после позиции (afterXid, afterSeq), записанные уже завершёнными транзакциями.
+     * Изменения незавершённых транзакций не возвращаются, даже если их номер меньше, поэтому
+     * следующий вызов с последней полученной позицией не пропустит ни одного изменения.
+     */
+    public List<TaskChange> getReleasedAfter(final long afterXid, final long afterSeq, final int limit) {
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource()
+                .addValue("afterXid", afterXid)
+                .addValue("afterSeq", afterSeq)
+                .addValue("limit", limit);
+
+        return jdbcTemplate.query(GET_RELEASED_AFTER, parameterSource, this::mapChange);
+    }
+
+    /**
+     * Есть ли видимые изменения после позиции, в том числе ещё не отданные getReleasedAfter.
+     */
+    public boolean hasAfter(final long afterXid, final long afterSeq) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                HAS_AFTER,
+                new MapSqlParameterSource("afterXid", afterXid).addValue("afterSeq", afterSeq),
+                Boolean.class
+        ));
+    }
+
+    /**
+     * Номер самой старой незавершённой транзакции. Все изменения с меньшим номером транзакции уже видны.
+     */
+    public long getHorizon() {
+        return jdbcTemplate.queryForObject(GET_HORIZON, new MapSqlParameterSource(), Long.class);
+    }
+
+    /**
+     * Номер транзакции изменения seq или null, если изменения уже нет в журнале.
+     */
+    public Long getXid(final long seq) {
+        List<Long> xid = jdbcTemplate.queryForList(GET_XID, new MapSqlParameterSource("seq", seq), Long.class);
+        return xid.isEmpty() ? null : xid.get(0);
+    }
+
+    /**
+     * Оставляет в журнале только size последних изменений в порядке (xid, seq), возвращает количество удалённых записей.
+     * Изменения незавершённых транзакций не удаляются. Позиция последнего удалённого изменения сохраняется
+     * в task_change_trim в той же транзакции: всё до неё включительно удалено, всё после - ещё в журнале.
+     */
+    public int trim(final long size) {
+        return jdbcTemplate.update(TRIM, new MapSqlParameterSource("size", size));
+    }
+
+    /**
+     * Позиция последнего удалённого из журнала изменения, без задачи. Подписчик, который остановился раньше неё,
+     * пропустил удалённые изменения.
+     */
+    public TaskChange getTrimmed() {
+        return jdbcTemplate.queryForObject(GET_TRIMMED, new MapSqlParameterSource(), (rs, rowNum) -> TaskChange.builder()
+                .xid(rs.getLong("xid"))
+                .seq(rs.getLong("seq"))
+                .build());
+    }
+
+    private TaskChange mapChange(final ResultSet rs, final int rowNum) throws SQLException {
+        return TaskChange.builder()
+                .seq(rs.getLong("seq"))
+                .xid(rs.getLong("xid"))
+                .task(taskServiceMapper.mapRow(rs, rowNum))
+                .build();
+    }
+}
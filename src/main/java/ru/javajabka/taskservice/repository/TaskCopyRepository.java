@@ -0,0 +1,143 @@
+package ru.javajabka.taskservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.javajabka.taskservice.datasource.ReadYourWrites;
+import ru.javajabka.taskservice.model.TaskRequestDTO;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Выгрузка и загрузка задач через COPY: строки идут напрямую между телом HTTP-запроса и базой.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskCopyRepository {
+
+    private static final String EXPORT_CSV = """
+            COPY (
+                SELECT id, title, description, status, dead_line::date AS "deadLine", author, assignee,
+                       created_at::timestamp AS "createdAt", updated_at::timestamp AS "updatedAt", version,
+                       overdue_at::timestamp AS "overdueAt", parent_id AS "parentId"
+                FROM task_service.task
+                WHERE status != 'DELETE'
+                ORDER BY id
+            ) TO STDOUT WITH (FORMAT csv, HEADER)
+            """;
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE task_import (
+                line INT NOT NULL,
+                title VARCHAR NOT NULL,
+                description VARCHAR NOT NULL,
+                dead_line DATE NOT NULL,
+                author INT NOT NULL,
+                assignee INT NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_STAGING = """
+            COPY pg_temp.task_import (line, title, description, dead_line, author, assignee) FROM STDIN WITH (FORMAT csv)
+            """;
+
+    /**
+     * Переносит задачи из промежуточной таблицы одним INSERT и возвращает строки, которые не вставлены:
+     * повтор названия внутри файла (остаётся первая строка) или название, уже занятое в базе.
+     */
+    private static final String INSERT_FROM_STAGING = """
+            WITH ranked AS (
+                SELECT i.*, row_number() OVER (PARTITION BY title ORDER BY line) AS n
+                FROM pg_temp.task_import i
+            ), inserted AS (
+                INSERT INTO task_service.task (title, description, status, dead_line, author, assignee, created_at)
+                SELECT title, description, 'TO_DO', dead_line, author, assignee, now()
+                FROM ranked
+                WHERE n = 1
+                ORDER BY line
+                ON CONFLICT (title) DO NOTHING
+                RETURNING title
+            )
+            SELECT ranked.line, ranked.title, ranked.n FROM ranked
+            WHERE ranked.n > 1 OR NOT EXISTS (SELECT 1 FROM inserted WHERE inserted.title = ranked.title)
+            ORDER BY ranked.line
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ReadYourWrites readYourWrites;
+
+    /**
+     * Возвращает количество выгруженных задач.
+     */
+    public long exportCsv(final OutputStream outputStream) {
+        return copyOut(EXPORT_CSV, outputStream);
+    }
+
+    /**
+     * Промежуточная таблица живёт до конца транзакции и видна только этому соединению.
+     */
+    public void createStaging() {
+        jdbcTemplate.getJdbcTemplate().execute(CREATE_STAGING);
+    }
+
+    /**
+     * Загружает задачи в промежуточную таблицу, ключ - номер строки в исходном файле.
+     */
+    public void copyToStaging(final Map<Integer, TaskRequestDTO> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        StringBuilder csv = new StringBuilder(tasks.size() * 128);
+        tasks.forEach((line, task) -> csv.append(line).append(',')
+                .append(quote(task.getTitle())).append(',')
+                .append(quote(task.getDescription())).append(',')
+                .append(task.getDeadLine()).append(',')
+                .append(task.getAuthor()).append(',')
+                .append(task.getAssignee()).append('\n'));
+
+        jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING, new StringReader(csv.toString()));
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+        });
+    }
+
+    /**
+     * Вставляет задачи из промежуточной таблицы. Для каждой невставленной строки вызывается onRejected(line, message).
+     */
+    public void insertFromStaging(final BiConsumer<Integer, String> onRejected) {
+        jdbcTemplate.getJdbcTemplate().execute("ANALYZE pg_temp.task_import");
+        jdbcTemplate.getJdbcTemplate().query(INSERT_FROM_STAGING, (RowCallbackHandler) rs -> onRejected.accept(
+                rs.getInt("line"),
+                rs.getLong("n") > 1
+                        ? String.format("Задача с названием %s уже есть в файле", rs.getString("title"))
+                        : String.format("Задача с названием %s уже существует", rs.getString("title"))
+        ));
+        readYourWrites.written();
+    }
+
+    private long copyOut(final String sql, final OutputStream outputStream) {
+        Long rows = jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, outputStream);
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private static String quote(final String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
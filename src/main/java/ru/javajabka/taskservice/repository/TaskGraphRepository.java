@@ -0,0 +1,264 @@
+package ru.javajabka.taskservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.javajabka.taskservice.datasource.ReadYourWrites;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.model.TaskTreeStats;
+import ru.javajabka.taskservice.repository.mapper.TaskServiceMapper;
+import java.sql.Types;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Подзадачи (task.parent_id) и зависимости "заблокирована задачей" (task_dependency).
+ * Поддерево и цепочка зависимостей читаются одним рекурсивным запросом, удалённые задачи и всё, что под ними, пропускаются.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskGraphRepository {
+
+    /**
+     * Обход вниз по индексу task_parent_id_idx: id и status подзадач читаются из индекса без обращения к таблице.
+     * Порядок по path - обход в глубину, каждая задача идёт сразу после своего родителя.
+     */
+    static final String GET_SUBTREE = """
+            WITH RECURSIVE subtree AS (
+                SELECT id, 0 AS depth, ARRAY[id] AS path
+                FROM task_service.task
+                WHERE id = :id AND status != 'DELETE'
+                UNION ALL
+                SELECT t.id, s.depth + 1, s.path || t.id
+                FROM subtree s
+                JOIN task_service.task t ON t.parent_id = s.id
+                WHERE t.status != 'DELETE' AND s.depth < :maxDepth
+            )
+            SELECT %s, depth
+            FROM subtree
+            JOIN task_service.task USING (id)
+            ORDER BY path
+            """.formatted(TaskServiceRepository.COLUMNS);
+
+    static final String GET_SUBTREE_STATS = """
+            WITH RECURSIVE subtree AS (
+                SELECT id, status, 0 AS depth
+                FROM task_service.task
+                WHERE id = :id AND status != 'DELETE'
+                UNION ALL
+                SELECT t.id, t.status, s.depth + 1
+                FROM subtree s
+                JOIN task_service.task t ON t.parent_id = s.id
+                WHERE t.status != 'DELETE' AND s.depth < :maxDepth
+            )
+            SELECT status, count(*) AS task_count, max(depth) AS depth
+            FROM subtree
+            GROUP BY status
+            """;
+
+    /**
+     * Поднимается от будущего родителя к корню по первичному ключу. UNION не даст зациклиться,
+     * даже если цикл уже есть в данных.
+     */
+    private static final String IS_ANCESTOR_OF = """
+            WITH RECURSIVE ancestors AS (
+                SELECT id, parent_id FROM task_service.task WHERE id = :parentId
+                UNION
+                SELECT t.id, t.parent_id
+                FROM ancestors a
+                JOIN task_service.task t ON t.id = a.parent_id
+            )
+            SELECT EXISTS (SELECT 1 FROM ancestors WHERE id = :id)
+            """;
+
+    private static final String SET_PARENT = """
+            UPDATE task_service.task
+            SET parent_id = :parentId, version = version + 1, updated_at = now()
+            WHERE id = :id AND status != 'DELETE'
+            RETURNING %s
+            """.formatted(TaskServiceRepository.COLUMNS);
+
+    /**
+     * Задачи, достижимые из :id по рёбрам task_dependency от колонки %1$s к колонке %2$s, с кратчайшим расстоянием.
+     * От task_id к blocked_by_id - чего ждёт задача, обход по первичному ключу.
+     * От blocked_by_id к task_id - кого задача блокирует, обход по task_dependency_blocked_by_id_idx.
+     */
+    private static final String GET_DEPENDENCY_CHAIN = """
+            WITH RECURSIVE chain AS (
+                SELECT d.%2$s AS id, 1 AS depth
+                FROM task_service.task_dependency d
+                JOIN task_service.task t ON t.id = d.%2$s
+                WHERE d.%1$s = :id AND t.status != 'DELETE'
+                UNION
+                SELECT d.%2$s, c.depth + 1
+                FROM chain c
+                JOIN task_service.task_dependency d ON d.%1$s = c.id
+                JOIN task_service.task t ON t.id = d.%2$s
+                WHERE t.status != 'DELETE' AND c.depth < :maxDepth
+            )
+            SELECT %3$s, depth
+            FROM (SELECT id, min(depth) AS depth FROM chain GROUP BY id) nearest
+            JOIN task_service.task USING (id)
+            ORDER BY depth, id
+            """;
+
+    static final String GET_BLOCKED_BY = GET_DEPENDENCY_CHAIN.formatted("task_id", "blocked_by_id", TaskServiceRepository.COLUMNS);
+
+    static final String GET_BLOCKING = GET_DEPENDENCY_CHAIN.formatted("blocked_by_id", "task_id", TaskServiceRepository.COLUMNS);
+
+    /**
+     * Проверяет, ждёт ли :blockedById задачу :taskId напрямую или через другие задачи.
+     * Если ждёт, новая зависимость :taskId от :blockedById замкнёт цикл.
+     */
+    private static final String IS_BLOCKED_BY = """
+            WITH RECURSIVE chain AS (
+                SELECT blocked_by_id AS id FROM task_service.task_dependency WHERE task_id = :blockedById
+                UNION
+                SELECT d.blocked_by_id
+                FROM chain c
+                JOIN task_service.task_dependency d ON d.task_id = c.id
+            )
+            SELECT EXISTS (SELECT 1 FROM chain WHERE id = :taskId)
+            """;
+
+    private static final String ADD_DEPENDENCY = """
+            INSERT INTO task_service.task_dependency (task_id, blocked_by_id)
+            VALUES (:taskId, :blockedById)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String REMOVE_DEPENDENCY = """
+            DELETE FROM task_service.task_dependency
+            WHERE task_id = :taskId AND blocked_by_id = :blockedById
+            """;
+
+    /**
+     * Проверка цикла и запись ребра должны идти без параллельных изменений графа, иначе два встречных ребра
+     * пройдут проверку одновременно. Блокировка держится до конца транзакции и не мешает чтению.
+     */
+    private static final String LOCK_HIERARCHY = "SELECT pg_advisory_xact_lock(hashtext('task_service.task.parent_id'))";
+
+    private static final String LOCK_DEPENDENCIES = "SELECT pg_advisory_xact_lock(hashtext('task_service.task_dependency'))";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TaskServiceMapper taskServiceMapper;
+    private final TaskCache taskCache;
+    private final ReadYourWrites readYourWrites;
+
+    public List<Task> getSubtree(final Long id, final int maxDepth) {
+        return jdbcTemplate.query(GET_SUBTREE, depthToSql(id, maxDepth), (rs, rowNum) -> {
+            Task task = taskServiceMapper.mapRow(rs, rowNum);
+            task.setDepth(rs.getInt("depth"));
+            return task;
+        });
+    }
+
+    public TaskTreeStats getSubtreeStats(final Long id, final int maxDepth) {
+        Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+        int[] depth = new int[1];
+        jdbcTemplate.query(GET_SUBTREE_STATS, depthToSql(id, maxDepth), (RowCallbackHandler) rs -> {
+            byStatus.put(TaskStatus.valueOf(rs.getString("status")), rs.getLong("task_count"));
+            depth[0] = Math.max(depth[0], rs.getInt("depth"));
+        });
+
+        if (byStatus.isEmpty()) {
+            throw new BadRequestException(String.format("Задача с id %d не найдена", id));
+        }
+
+        return TaskTreeStats.builder()
+                .rootId(id)
+                .total(byStatus.values().stream().mapToLong(Long::longValue).sum())
+                .depth(depth[0])
+                .byStatus(byStatus)
+                .build();
+    }
+
+    /**
+     * Блокирует изменения иерархии до конца текущей транзакции.
+     */
+    public void lockHierarchy() {
+        jdbcTemplate.getJdbcTemplate().execute(LOCK_HIERARCHY);
+    }
+
+    /**
+     * true, если задача id - это parentId или один из его предков: такой перенос замкнёт цикл.
+     */
+    public boolean isAncestorOf(final Long id, final Long parentId) {
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("parentId", parentId);
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_ANCESTOR_OF, parameterSource, Boolean.class));
+    }
+
+    /**
+     * Переносит задачу под parentId, null делает её задачей верхнего уровня.
+     */
+    public Task setParent(final Long id, final Long parentId) {
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("parentId", parentId, Types.BIGINT);
+        try {
+            Task updated = jdbcTemplate.queryForObject(SET_PARENT, parameterSource, taskServiceMapper);
+            taskCache.put(updated);
+            readYourWrites.written();
+            return updated;
+        } catch (EmptyResultDataAccessException exc) {
+            throw new BadRequestException(String.format("Задача с id %d не найдена", id));
+        }
+    }
+
+    public List<Task> getBlockedBy(final Long id, final int maxDepth) {
+        return getDependencyChain(GET_BLOCKED_BY, id, maxDepth);
+    }
+
+    public List<Task> getBlocking(final Long id, final int maxDepth) {
+        return getDependencyChain(GET_BLOCKING, id, maxDepth);
+    }
+
+    /**
+     * Блокирует изменения зависимостей до конца текущей транзакции.
+     */
+    public void lockDependencies() {
+        jdbcTemplate.getJdbcTemplate().execute(LOCK_DEPENDENCIES);
+    }
+
+    public boolean isBlockedBy(final Long blockedById, final Long taskId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_BLOCKED_BY, dependencyToSql(taskId, blockedById), Boolean.class));
+    }
+
+    public void addDependency(final Long taskId, final Long blockedById) {
+        jdbcTemplate.update(ADD_DEPENDENCY, dependencyToSql(taskId, blockedById));
+        readYourWrites.written();
+    }
+
+    public void removeDependency(final Long taskId, final Long blockedById) {
+        jdbcTemplate.update(REMOVE_DEPENDENCY, dependencyToSql(taskId, blockedById));
+        readYourWrites.written();
+    }
+
+    private List<Task> getDependencyChain(final String sql, final Long id, final int maxDepth) {
+        return jdbcTemplate.query(sql, depthToSql(id, maxDepth), (rs, rowNum) -> {
+            Task task = taskServiceMapper.mapRow(rs, rowNum);
+            task.setDepth(rs.getInt("depth"));
+            return task;
+        });
+    }
+
+    private MapSqlParameterSource depthToSql(final Long id, final int maxDepth) {
+        return new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("maxDepth", maxDepth);
+    }
+
+    private MapSqlParameterSource dependencyToSql(final Long taskId, final Long blockedById) {
+        return new MapSqlParameterSource()
+                .addValue("taskId", taskId)
+                .addValue("blockedById", blockedById);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.javajabka.taskservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.javajabka.taskservice.model.TaskEvent;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Outbox событий задач. Записи добавляет триггер на task_service.task в транзакции изменения задачи.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskOutboxRepository {
+
+    private static final String CLAIM_BATCH = """
+            WITH claimed AS (
+                UPDATE task_service.task_outbox
+                SET next_attempt_at = now() + make_interval(secs => :leaseSeconds)
+                WHERE id IN (
+                    SELECT id FROM task_service.task_outbox
+                    WHERE next_attempt_at <= now()
+                    ORDER BY next_attempt_at, id
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING id, event_type, task_id, payload, created_at, attempts
+            )
+            SELECT * FROM claimed ORDER BY id
+            """;
+
+    private static final String DELETE = """
+            DELETE FROM task_service.task_outbox
+            WHERE id IN (:ids)
+            """;
+
+    private static final String RESCHEDULE = """
+            UPDATE task_service.task_outbox
+            SET attempts = attempts + 1,
+                next_attempt_at = now() + make_interval(secs => least(:maxBackoffSeconds, :backoffSeconds * power(2, attempts)))
+            WHERE id IN (:ids)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Забирает до limit готовых к отправке событий на время lease: до его окончания их не заберёт
+     * ни этот, ни другой экземпляр сервиса. Выполняется отдельным запросом без внешней транзакции,
+     * чтобы строки не оставались заблокированными во время отправки. Если экземпляр упадёт, не успев
+     * удалить или отложить события, они будут отправлены снова после окончания lease.
+     */
+    public List<TaskEvent> claimBatch(final int limit, final Duration lease) {
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource()
+                .addValue("limit", limit)
+                .addValue("leaseSeconds", lease.toMillis() / 1000.0);
+        return jdbcTemplate.query(CLAIM_BATCH, parameterSource, (rs, rowNum) -> TaskEvent.builder()
+                .id(rs.getLong("id"))
+                .type(rs.getString("event_type"))
+                .taskId(rs.getLong("task_id"))
+                .payload(rs.getString("payload"))
+                .createdAt(rs.getTimestamp("created_at").toInstant())
+                .attempts(rs.getInt("attempts"))
+                .build());
+    }
+
+    public void delete(final Collection<Long> ids) {
+        jdbcTemplate.update(DELETE, new MapSqlParameterSource("ids", ids));
+    }
+
+    /**
+     * Откладывает следующую попытку с экспоненциально растущей задержкой, но не больше maxBackoff.
+     */
+    public void reschedule(final Collection<Long> ids, final Duration backoff, final Duration maxBackoff) {
+        jdbcTemplate.update(RESCHEDULE, new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("backoffSeconds", backoff.toMillis() / 1000.0)
+                .addValue("maxBackoffSeconds", maxBackoff.toMillis() / 1000.0));
+    }
+}
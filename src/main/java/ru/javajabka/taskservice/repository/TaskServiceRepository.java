@@ -1,83 +1,595 @@
 package ru.javajabka.taskservice.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.postgresql.util.PSQLException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
+import ru.javajabka.taskservice.datasource.ReadYourWrites;
 import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.exception.PreconditionFailedException;
 import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskField;
 import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.repository.mapper.TaskProjectionMapper;
 import ru.javajabka.taskservice.repository.mapper.TaskServiceMapper;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
 public class TaskServiceRepository {
 
-    private static final String INSERT = """
-            INSERT INTO task_service.task (title, description, status, dead_line, author, assignee, created_at)
-            VALUES (:title, :description, 'TO_DO', :deadLine, :author, :assignee, now())
-            RETURNING *;
+    /**
+     * Колонки задачи без search_vector: поисковый вектор нужен только базе и не передаётся клиенту.
+     */
+    static final String COLUMNS = "id, title, description, status, dead_line, author, assignee, created_at, updated_at, version, overdue_at, parent_id";
+
+    static final String INSERT = """
+            INSERT INTO task_service.task (title, description, status, dead_line, author, assignee, parent_id, created_at)
+            VALUES (:title, :description, 'TO_DO', :deadLine, :author, :assignee, :parentId, now())
+            RETURNING %s;
+            """.formatted(COLUMNS);
+
+    private static final String GET_BY_ID_PROJECTION = """
+            SELECT %s FROM task_service.task
+            WHERE status != 'DELETE' AND id = :id
             """;
 
-    private static final String GET_BY_ID = """
-            SELECT * FROM task_service.task
+    static final String GET_BY_ID = GET_BY_ID_PROJECTION.formatted(COLUMNS);
+
+    static final String GET_VERSION = """
+            SELECT version FROM task_service.task
             WHERE status != 'DELETE' AND id = :id
             """;
 
     private static final String UPDATE = """
             UPDATE task_service.task
-            SET title = :title, description = :description, status = :status, dead_line = :deadLine, assignee = :assignee, updated_at = now()
-            WHERE id = :id
-            RETURNING *;
+            SET %s, version = version + 1, updated_at = now()
+            WHERE id = :id AND status != 'DELETE'
             """;
 
     private static final String GET_ALL = """
-            SELECT * FROM task_service.task
-            WHERE (:assignee::integer is null OR assignee = :assignee::integer)
-            AND (:status::varchar is null OR status = :status::varchar)
-            AND (:status = 'DELETE' OR status != 'DELETE')
+            SELECT %s FROM task_service.task
+            """;
+
+    private static final String GET_ALL_ARCHIVE = """
+            SELECT %s FROM task_service.task_archive
+            """;
+
+    private static final String GET_ALL_DELETED = """
+            SELECT * FROM (
+            (%s)
+            UNION ALL
+            (%s)
+            ) deleted
             """;
 
+    private static final String INSERT_BATCH = """
+            INSERT INTO task_service.task (title, description, status, dead_line, author, assignee, parent_id, created_at)
+            VALUES %s
+            ON CONFLICT (title) DO NOTHING
+            RETURNING %s;
+            """;
+
+    private static final String INSERT_BATCH_VALUES = "(:title%1$d, :description%1$d, 'TO_DO', :deadLine%1$d, :author%1$d, :assignee%1$d, :parentId%1$d, now())";
+
+    private static final String UPDATE_BATCH = """
+            UPDATE task_service.task
+            SET title = COALESCE(:title, title),
+                description = COALESCE(:description, description),
+                status = COALESCE(:status, status),
+                dead_line = COALESCE(:deadLine, dead_line),
+                overdue_at = CASE WHEN CAST(:deadLine AS DATE) IS NULL THEN overdue_at END,
+                assignee = COALESCE(:assignee, assignee),
+                version = version + 1,
+                updated_at = now()
+            WHERE id = :id AND status != 'DELETE'
+            """;
+
+    private static final String GET_BY_IDS = """
+            SELECT %s FROM task_service.task
+            WHERE id IN (:ids)
+            """.formatted(COLUMNS);
+
+    private static final String SEARCH = """
+            SELECT * FROM (
+                SELECT %s, ts_rank_cd(search_vector, websearch_to_tsquery('russian', :q)) + similarity(title, :q) AS rank
+                FROM task_service.task
+                %s) found
+            """;
+
+    private static final String GET_ID_BY_TITLES = """
+            SELECT id, title FROM task_service.task
+            WHERE title IN (:titles)
+            """;
+
+    private static final String FLAG_OVERDUE = """
+            UPDATE task_service.task
+            SET overdue_at = now(), version = version + 1
+            WHERE id IN (
+                SELECT id FROM task_service.task
+                WHERE overdue_at IS NULL AND status NOT IN ('DONE', 'DELETE') AND dead_line < current_date
+                ORDER BY dead_line
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING %s
+            """.formatted(COLUMNS);
+
+    static final String ARCHIVE_DELETED = """
+            WITH moved AS (
+                DELETE FROM task_service.task
+                WHERE id IN (
+                    SELECT id FROM task_service.task deleted
+                    WHERE status = 'DELETE' AND coalesce(updated_at, created_at) < now() - make_interval(secs => :retentionSeconds)
+                      AND NOT EXISTS (SELECT 1 FROM task_service.task child WHERE child.parent_id = deleted.id)
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING %1$s
+            )
+            INSERT INTO task_service.task_archive (%1$s, archived_at)
+            SELECT %1$s, now() FROM moved
+            """.formatted(COLUMNS);
+
+    private static final int BATCH_CHUNK_SIZE = 1000;
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+    private static final String PARENT_FOREIGN_KEY = "task_parent_id_fkey";
+
     private final NamedParameterJdbcTemplate jdbcTemplate;
     private final TaskServiceMapper taskServiceMapper;
+    private final TaskCache taskCache;
+    private final ReadYourWrites readYourWrites;
 
     public Task create(final Task task) {
         try {
-            return jdbcTemplate.queryForObject(INSERT, taskToSql(task), taskServiceMapper);
+            Task created = jdbcTemplate.queryForObject(INSERT, taskToSql(task), taskServiceMapper);
+            taskCache.put(created);
+            readYourWrites.written();
+            return created;
         } catch (DuplicateKeyException exc) {
             throw new BadRequestException(String.format("Задача с названием %s уже существует", task.getTitle()));
+        } catch (DataIntegrityViolationException exc) {
+            if (!isParentViolation(exc)) {
+                throw exc;
+            }
+            throw new BadRequestException(String.format("Задача с id %d не найдена", task.getParentId()));
         }
 
     }
 
     public Task getById(final Long id) {
+        return taskCache.get(id, this::loadById);
+    }
+
+    /**
+     * Задача только с запрошенными полями. Если задача уже есть в кэше, поля берутся из неё без запроса к базе.
+     */
+    public Task getById(final Long id, final Set<TaskField> fields) {
+        List<TaskField> projection = projection(fields);
+        Optional<Task> cached = taskCache.getIfPresent(id);
+        if (cached.isPresent()) {
+            return TaskProjectionMapper.project(cached.get(), projection);
+        }
+
         try {
-            return jdbcTemplate.queryForObject(GET_BY_ID, new MapSqlParameterSource("id", id), taskServiceMapper);
+            return jdbcTemplate.queryForObject(
+                    GET_BY_ID_PROJECTION.formatted(columns(projection)),
+                    new MapSqlParameterSource("id", id),
+                    new TaskProjectionMapper(projection)
+            );
+        } catch (EmptyResultDataAccessException exc) {
+            throw new BadRequestException(String.format("Задача с id %d не найдена", id));
+        }
+    }
+
+    public Long getVersion(final Long id) {
+        Optional<Task> cached = taskCache.getIfPresent(id);
+        if (cached.isPresent()) {
+            return cached.get().getVersion();
+        }
+
+        try {
+            return jdbcTemplate.queryForObject(GET_VERSION, new MapSqlParameterSource("id", id), Long.class);
         } catch (EmptyResultDataAccessException exc) {
             throw new BadRequestException(String.format("Задача с id %d не найдена", id));
         }
     }
 
+    /**
+     * Обновляет только непустые поля задачи. Если у задачи указана версия,
+     * обновление выполняется только при её совпадении с версией в базе.
+     * Изменение без полей ничего не пишет и возвращает текущую задачу: версия и ETag не меняются.
+     */
     public Task update(final Task task) {
+        if (isEmptyPatch(task)) {
+            Task current = getById(task.getId());
+            if (task.getVersion() != null && !task.getVersion().equals(current.getVersion())) {
+                throw new PreconditionFailedException(String.format("Задача с id %d была изменена, текущая версия %d", task.getId(), current.getVersion()));
+            }
+            return current;
+        }
+
+        MapSqlParameterSource parameterSource = patchToSql(task);
+        parameterSource.addValue("version", task.getVersion(), Types.BIGINT);
+
         try {
-            return jdbcTemplate.queryForObject(UPDATE, taskToSql(task), taskServiceMapper);
+            Task updated = jdbcTemplate.queryForObject(updateSql(task), parameterSource, taskServiceMapper);
+            taskCache.put(updated);
+            readYourWrites.written();
+            return updated;
         } catch (DuplicateKeyException exc) {
             throw new BadRequestException(String.format("Задача с названием %s уже существует", task.getTitle()));
         } catch (EmptyResultDataAccessException exc) {
+            if (task.getVersion() != null) {
+                Long version = getVersion(task.getId());
+                throw new PreconditionFailedException(String.format("Задача с id %d была изменена, текущая версия %d", task.getId(), version));
+            }
             throw new BadRequestException(String.format("Задача с id %d не найдена", task.getId()));
         }
+    }
+
+    public List<Task> getAll(final Optional<TaskStatus> status, final Optional<Long> assignee, final Long afterId, final int limit) {
+        return jdbcTemplate.query(getAllSql(COLUMNS, status, assignee, afterId, limit), taskToSql(status, assignee, afterId, limit), taskServiceMapper);
+    }
+
+    /**
+     * Та же выборка, что и getAll, но из базы читаются только колонки запрошенных полей.
+     */
+    public List<Task> getAll(
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final Long afterId,
+            final int limit,
+            final Set<TaskField> fields
+    ) {
+        List<TaskField> projection = projection(fields);
+        return jdbcTemplate.query(
+                getAllSql(columns(projection), status, assignee, afterId, limit),
+                taskToSql(status, assignee, afterId, limit),
+                new TaskProjectionMapper(projection)
+        );
+    }
+
+    /**
+     * Та же выборка, что и getAll, но только id и version: для проверки If-None-Match без чтения строк целиком.
+     */
+    public List<Task> getAllVersions(final Optional<TaskStatus> status, final Optional<Long> assignee, final Long afterId, final int limit) {
+        return jdbcTemplate.query(
+                getAllSql("id, version", status, assignee, afterId, limit),
+                taskToSql(status, assignee, afterId, limit),
+                (rs, rowNum) -> Task.builder().id(rs.getLong("id")).version(rs.getLong("version")).build()
+        );
+    }
+
+    /**
+     * Ищет задачи по словам в названии и описании, по началу названия и по похожему названию (опечатки).
+     * Результат упорядочен по убыванию релевантности, следующая страница начинается после пары (afterRank, afterId).
+     */
+    public List<Task> search(
+            final String query,
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final Float afterRank,
+            final Long afterId,
+            final int limit
+    ) {
+        MapSqlParameterSource parameterSource = taskToSql(status, assignee, afterId, limit)
+                .addValue("q", query)
+                .addValue("prefix", escapeLike(query) + "%")
+                .addValue("afterRank", afterRank, Types.REAL);
+
+        return jdbcTemplate.query(
+                searchSql(COLUMNS, status, assignee, afterRank != null && afterId != null),
+                parameterSource,
+                (rs, rowNum) -> {
+                    Task task = taskServiceMapper.mapRow(rs, rowNum);
+                    task.setRank(rs.getFloat("rank"));
+                    return task;
+                }
+        );
+    }
+
+    /**
+     * Тот же поиск, но из базы читаются только колонки запрошенных полей.
+     */
+    public List<Task> search(
+            final String query,
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final Float afterRank,
+            final Long afterId,
+            final int limit,
+            final Set<TaskField> fields
+    ) {
+        MapSqlParameterSource parameterSource = taskToSql(status, assignee, afterId, limit)
+                .addValue("q", query)
+                .addValue("prefix", escapeLike(query) + "%")
+                .addValue("afterRank", afterRank, Types.REAL);
+
+        List<TaskField> projection = projection(fields);
+        TaskProjectionMapper mapper = new TaskProjectionMapper(projection);
+        return jdbcTemplate.query(
+                searchSql(columns(projection), status, assignee, afterRank != null && afterId != null),
+                parameterSource,
+                (rs, rowNum) -> {
+                    Task task = mapper.mapRow(rs, rowNum);
+                    task.setRank(rs.getFloat(mapper.getColumnCount() + 1));
+                    return task;
+                }
+        );
+    }
+
+    /**
+     * Вставляет задачи многострочными INSERT по BATCH_CHUNK_SIZE строк.
+     * Задачи с уже занятым названием пропускаются и не попадают в результат.
+     */
+    public List<Task> createBatch(final List<Task> tasks) {
+        List<Task> created = new ArrayList<>(tasks.size());
+        for (int from = 0; from < tasks.size(); from += BATCH_CHUNK_SIZE) {
+            List<Task> chunk = tasks.subList(from, Math.min(from + BATCH_CHUNK_SIZE, tasks.size()));
+            created.addAll(jdbcTemplate.query(insertBatchSql(chunk.size()), taskToSql(chunk), taskServiceMapper));
+        }
+        readYourWrites.written();
+        return created;
+    }
+
+    /**
+     * Обновляет только переданные поля задач одним JDBC batch.
+     * Возвращает количество обновлённых строк для каждой задачи: 0 - задача не найдена или удалена.
+     */
+    public int[] updateBatch(final List<Task> tasks) {
+        try {
+            List<Long> ids = tasks.stream().map(Task::getId).toList();
+            taskCache.evict(ids);
+            readYourWrites.written();
+            return jdbcTemplate.batchUpdate(
+                    UPDATE_BATCH,
+                    tasks.stream().map(TaskServiceRepository::patchToSql).toArray(MapSqlParameterSource[]::new)
+            );
+        } catch (DuplicateKeyException exc) {
+            throw new BadRequestException("Названия задач в пакете пересекаются друг с другом");
+        }
+    }
+
+    /**
+     * Отмечает просроченными не больше limit задач с прошедшим дедлайном и возвращает их.
+     * Дедлайн - это дата, поэтому задача становится просроченной на следующий день после неё.
+     * Отмеченные задачи выпадают из частичного индекса task_overdue_candidate_idx, поэтому следующий вызов
+     * читает только новые просроченные задачи. Строки, заблокированные другим экземпляром, пропускаются.
+     */
+    public List<Task> flagOverdue(final int limit) {
+        List<Task> flagged = jdbcTemplate.query(FLAG_OVERDUE, new MapSqlParameterSource("limit", limit), taskServiceMapper);
+        taskCache.evict(flagged.stream().map(Task::getId).toList());
+        return flagged;
+    }
 
+    /**
+     * Переносит в архив не больше limit задач, удалённых раньше чем retention назад, и возвращает их количество.
+     * Каждый вызов - одна короткая транзакция, строки, заблокированные другими транзакциями, пропускаются.
+     * Задача с подзадачами остаётся в таблице, пока подзадачи не перенесены или не архивированы,
+     * поэтому удалённое поддерево уходит в архив начиная с листьев.
+     */
+    public int archiveDeleted(final Duration retention, final int limit) {
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource()
+                .addValue("retentionSeconds", retention.toSeconds())
+                .addValue("limit", limit);
+        return jdbcTemplate.update(ARCHIVE_DELETED, parameterSource);
+    }
+
+    public List<Task> getByIds(final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(GET_BY_IDS, new MapSqlParameterSource("ids", ids), taskServiceMapper);
+    }
+
+    public Map<String, Long> getIdByTitles(final Collection<String> titles) {
+        Map<String, Long> idByTitle = new HashMap<>();
+        if (titles.isEmpty()) {
+            return idByTitle;
+        }
+
+        jdbcTemplate.query(
+                GET_ID_BY_TITLES,
+                new MapSqlParameterSource("titles", titles),
+                (RowCallbackHandler) rs -> idByTitle.put(rs.getString("title"), rs.getLong("id"))
+        );
+        return idByTitle;
+    }
+
+    /**
+     * Драйвер читает строки порциями по STREAM_FETCH_SIZE только здесь: остальные запросы
+     * возвращают ограниченное число строк, и лишний размер выборки им не нужен.
+     */
+    public void streamAll(final Optional<TaskStatus> status, final Optional<Long> assignee, final Consumer<Task> consumer) {
+        JdbcTemplate streamingTemplate = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        streamingTemplate.setFetchSize(STREAM_FETCH_SIZE);
+        new NamedParameterJdbcTemplate(streamingTemplate).query(
+                getAllSql(COLUMNS, status, assignee, null, null),
+                taskToSql(status, assignee, null, null),
+                (RowCallbackHandler) rs -> consumer.accept(taskServiceMapper.mapRow(rs, rs.getRow()))
+        );
+    }
+
+    /**
+     * Собирает отдельный запрос под каждую комбинацию фильтров, чтобы планировщик
+     * видел конкретные условия и мог выбрать подходящий индекс.
+     * Удалённые задачи дополнительно читаются из архива task_archive.
+     */
+    static String getAllSql(final String columns, final Optional<TaskStatus> status, final Optional<Long> assignee, final Long afterId, final Integer limit) {
+        StringJoiner conditions = filterConditions(status, assignee);
+        if (afterId != null) {
+            conditions.add("id > :afterId");
+        }
+
+        String sql = orderById(String.format(GET_ALL, columns) + conditions, limit);
+        if (status.isEmpty() || status.get() != TaskStatus.DELETE) {
+            return sql;
+        }
+
+        StringJoiner archiveConditions = new StringJoiner(" AND ", "WHERE ", "\n").setEmptyValue("");
+        assignee.ifPresent(e -> archiveConditions.add("assignee = :assignee"));
+        if (afterId != null) {
+            archiveConditions.add("id > :afterId");
+        }
+
+        String archiveSql = orderById(String.format(GET_ALL_ARCHIVE, columns) + archiveConditions, limit);
+        return orderById(String.format(GET_ALL_DELETED, sql, archiveSql), limit);
+    }
+
+    private static String orderById(final String sql, final Integer limit) {
+        return limit == null ? sql + "ORDER BY id" : sql + "ORDER BY id\nLIMIT :limit";
+    }
+
+    /**
+     * Совпадение по словам ищется через GIN-индекс по search_vector, начало названия и опечатки -
+     * через триграммный индекс по title. Ранг считается только по найденным строкам.
+     * Архив task_archive не индексируется для поиска, поэтому со status=DELETE находятся только задачи,
+     * удалённые позже task.archive.retention и ещё не перенесённые в архив.
+     */
+    static String searchSql(final String columns, final Optional<TaskStatus> status, final Optional<Long> assignee, final boolean afterCursor) {
+        StringJoiner conditions = filterConditions(status, assignee);
+        conditions.add("(search_vector @@ websearch_to_tsquery('russian', :q) OR title ILIKE :prefix OR title % :q)");
+
+        StringBuilder sql = new StringBuilder(String.format(SEARCH, columns, conditions));
+        if (afterCursor) {
+            sql.append("WHERE rank < :afterRank OR (rank = :afterRank AND id > :afterId)\n");
+        }
+        return sql.append("ORDER BY rank DESC, id\nLIMIT :limit").toString();
+    }
+
+    private static StringJoiner filterConditions(final Optional<TaskStatus> status, final Optional<Long> assignee) {
+        StringJoiner conditions = new StringJoiner(" AND ", "WHERE ", "\n");
+        conditions.add(status.isPresent() ? "status = :status" : "status != 'DELETE'");
+        assignee.ifPresent(e -> conditions.add("assignee = :assignee"));
+        return conditions;
+    }
+
+    /**
+     * Запрошенные поля в порядке колонок таблицы. id и version читаются всегда: они нужны для курсора страницы и ETag.
+     */
+    static List<TaskField> projection(final Set<TaskField> fields) {
+        EnumSet<TaskField> projection = EnumSet.of(TaskField.ID, TaskField.VERSION);
+        projection.addAll(fields);
+        return List.copyOf(projection);
+    }
+
+    static String columns(final List<TaskField> projection) {
+        return projection.stream().map(TaskField::getColumn).collect(Collectors.joining(", "));
+    }
+
+    static String escapeLike(final String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private Task loadById(final Long id) {
+        try {
+            return jdbcTemplate.queryForObject(GET_BY_ID, new MapSqlParameterSource("id", id), taskServiceMapper);
+        } catch (EmptyResultDataAccessException exc) {
+            throw new BadRequestException(String.format("Задача с id %d не найдена", id));
+        }
+    }
+
+    static boolean isEmptyPatch(final Task task) {
+        return task.getTitle() == null
+                && task.getDescription() == null
+                && task.getStatus() == null
+                && task.getDeadLine() == null
+                && task.getAssignee() == null;
+    }
+
+    /**
+     * Вызывается только для изменения хотя бы одного поля, см. isEmptyPatch.
+     */
+    static String updateSql(final Task task) {
+        StringJoiner columns = new StringJoiner(", ");
+        if (task.getTitle() != null) {
+            columns.add("title = :title");
+        }
+        if (task.getDescription() != null) {
+            columns.add("description = :description");
+        }
+        if (task.getStatus() != null) {
+            columns.add("status = :status");
+        }
+        if (task.getDeadLine() != null) {
+            columns.add("dead_line = :deadLine");
+            columns.add("overdue_at = NULL");
+        }
+        if (task.getAssignee() != null) {
+            columns.add("assignee = :assignee");
+        }
+
+        StringBuilder sql = new StringBuilder(String.format(UPDATE, columns));
+        if (task.getVersion() != null) {
+            sql.append("AND version = :version\n");
+        }
+        return sql.append("RETURNING ").append(COLUMNS).toString();
+    }
+
+    private String insertBatchSql(final int size) {
+        StringJoiner values = new StringJoiner(",\n");
+        for (int i = 0; i < size; i++) {
+            values.add(String.format(INSERT_BATCH_VALUES, i));
+        }
+        return String.format(INSERT_BATCH, values, COLUMNS);
+    }
+
+    private MapSqlParameterSource taskToSql(final List<Task> tasks) {
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            parameterSource.addValue("title" + i, task.getTitle());
+            parameterSource.addValue("description" + i, task.getDescription());
+            parameterSource.addValue("deadLine" + i, task.getDeadLine());
+            parameterSource.addValue("author" + i, task.getAuthor());
+            parameterSource.addValue("assignee" + i, task.getAssignee());
+            parameterSource.addValue("parentId" + i, task.getParentId(), Types.BIGINT);
+        }
+        return parameterSource;
+    }
+
+    static MapSqlParameterSource patchToSql(final Task task) {
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource();
+        parameterSource.addValue("id", task.getId(), Types.BIGINT);
+        parameterSource.addValue("title", task.getTitle(), Types.VARCHAR);
+        parameterSource.addValue("description", task.getDescription(), Types.VARCHAR);
+        parameterSource.addValue("status", task.getStatus() == null ? null : task.getStatus().toString(), Types.VARCHAR);
+        parameterSource.addValue("deadLine", task.getDeadLine(), Types.DATE);
+        parameterSource.addValue("assignee", task.getAssignee(), Types.BIGINT);
+        return parameterSource;
     }
 
-    public List<Task> getAll(final Optional<TaskStatus> status, final Optional<Long> assignee) {
-        return jdbcTemplate.query(GET_ALL, taskToSql(status, assignee), taskServiceMapper);
+    /**
+     * Родитель, указанный при создании, удалён из таблицы между проверкой и вставкой.
+     */
+    private static boolean isParentViolation(final DataIntegrityViolationException exc) {
+        return exc.getMostSpecificCause() instanceof PSQLException psqlException
+                && FOREIGN_KEY_VIOLATION.equals(psqlException.getSQLState())
+                && psqlException.getServerErrorMessage() != null
+                && PARENT_FOREIGN_KEY.equals(psqlException.getServerErrorMessage().getConstraint());
     }
 
-    private MapSqlParameterSource taskToSql(final Task task) {
+    static MapSqlParameterSource taskToSql(final Task task) {
         MapSqlParameterSource parameterSource = new MapSqlParameterSource();
         parameterSource.addValue("id", task.getId());
         parameterSource.addValue("title", task.getTitle());
@@ -86,10 +598,11 @@ public class TaskServiceRepository {
         parameterSource.addValue("deadLine", task.getDeadLine());
         parameterSource.addValue("author", task.getAuthor());
         parameterSource.addValue("assignee", task.getAssignee());
+        parameterSource.addValue("parentId", task.getParentId(), Types.BIGINT);
         return parameterSource;
     }
 
-    private MapSqlParameterSource taskToSql(Optional<TaskStatus> status, final Optional<Long> assignee) {
+    private MapSqlParameterSource taskToSql(Optional<TaskStatus> status, final Optional<Long> assignee, final Long afterId, final Integer limit) {
         MapSqlParameterSource parameterSource = new MapSqlParameterSource();
 
         status.ifPresentOrElse(
@@ -100,6 +613,8 @@ public class TaskServiceRepository {
                 (e) -> parameterSource.addValue("assignee",e),
                 () -> parameterSource.addValue("assignee", null));
 
+        parameterSource.addValue("afterId", afterId);
+        parameterSource.addValue("limit", limit);
         return parameterSource;
     }
 }
\ No newline at end of file
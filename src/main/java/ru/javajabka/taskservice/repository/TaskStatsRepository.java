@@ -0,0 +1,120 @@
+package ru.javajabka.taskservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.javajabka.taskservice.model.TaskStats;
+import ru.javajabka.taskservice.model.TaskStatus;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Счётчики задач по статусу, ответственному и просрочке. Таблицу task_counter ведёт триггер
+ * на task_service.task, поэтому статистика не читает саму таблицу задач.
+ * Просроченной считается незавершённая задача, отмеченная TaskOverdueJob, поэтому на каждую пару
+ * статуса и ответственного приходится не больше двух строк, а просрочка в статистике появляется вместе с отметкой.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskStatsRepository {
+
+    private static final String GET_STATS = """
+            SELECT status, assignee, overdue, task_count
+            FROM task_service.task_counter
+            WHERE status != 'DELETE' AND task_count > 0
+            """;
+
+    private static final String GET_ASSIGNEE_RANGE_END = """
+            SELECT assignee FROM task_service.task
+            WHERE assignee > :after
+            ORDER BY assignee
+            OFFSET :rangeSize - 1
+            LIMIT 1
+            """;
+
+    /**
+     * Расхождение считается по одному снимку и для задач, и для счётчиков, а исправляется прибавлением разницы.
+     * Изменения, закоммиченные после снимка, уже учтены триггером в текущем значении счётчика,
+     * поэтому пересчёт не блокирует запись задач.
+     */
+    private static final String RECONCILE = """
+            WITH actual AS (
+                SELECT status, assignee, status != 'DONE' AND overdue_at IS NOT NULL AS overdue, count(*) AS task_count
+                FROM task_service.task
+                WHERE assignee > :after AND assignee <= :last
+                GROUP BY status, assignee, overdue
+            ), counted AS (
+                SELECT status, assignee, overdue, task_count
+                FROM task_service.task_counter
+                WHERE assignee > :after AND assignee <= :last
+            ), drift AS (
+                SELECT status, assignee, overdue, coalesce(actual.task_count, 0) - coalesce(counted.task_count, 0) AS delta
+                FROM actual
+                FULL JOIN counted USING (status, assignee, overdue)
+            ), corrected AS (
+                INSERT INTO task_service.task_counter AS counter (status, assignee, overdue, task_count)
+                SELECT status, assignee, overdue, delta FROM drift WHERE delta != 0
+                ON CONFLICT (status, assignee, overdue) DO UPDATE SET task_count = counter.task_count + EXCLUDED.task_count
+                RETURNING 1
+            )
+            SELECT count(*) FROM corrected
+            """;
+
+    private static final String DELETE_EMPTY_COUNTERS = "DELETE FROM task_service.task_counter WHERE task_count = 0";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TaskStats getStats() {
+        Map<TaskStatus, Long> byStatus = new EnumMap<>(TaskStatus.class);
+        Map<Long, Long> byAssignee = new TreeMap<>();
+        long[] overdueAndOnTime = new long[2];
+
+        jdbcTemplate.query(GET_STATS, (RowCallbackHandler) rs -> {
+            long count = rs.getLong("task_count");
+            byStatus.merge(TaskStatus.valueOf(rs.getString("status")), count, Long::sum);
+            byAssignee.merge(rs.getLong("assignee"), count, Long::sum);
+            overdueAndOnTime[rs.getBoolean("overdue") ? 0 : 1] += count;
+        });
+
+        return TaskStats.builder()
+                .byStatus(byStatus)
+                .byAssignee(byAssignee)
+                .overdue(overdueAndOnTime[0])
+                .onTime(overdueAndOnTime[1])
+                .build();
+    }
+
+    /**
+     * Последний ответственный диапазона, который начинается после after и содержит не меньше rangeSize задач,
+     * или null, если задач после after меньше.
+     */
+    public Long getAssigneeRangeEnd(final long after, final int rangeSize) {
+        List<Long> last = jdbcTemplate.queryForList(
+                GET_ASSIGNEE_RANGE_END,
+                new MapSqlParameterSource("after", after).addValue("rangeSize", rangeSize),
+                Long.class
+        );
+        return last.isEmpty() ? null : last.get(0);
+    }
+
+    /**
+     * Пересчитывает счётчики ответственных из диапазона (after, last] и возвращает количество исправленных строк.
+     * Блокируются только исправляемые строки счётчиков и только до конца запроса.
+     */
+    public int reconcile(final long after, final long last) {
+        Integer corrected = jdbcTemplate.queryForObject(
+                RECONCILE,
+                new MapSqlParameterSource("after", after).addValue("last", last),
+                Integer.class
+        );
+        return corrected == null ? 0 : corrected;
+    }
+
+    public int deleteEmptyCounters() {
+        return jdbcTemplate.getJdbcTemplate().update(DELETE_EMPTY_COUNTERS);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.javajabka.taskservice.repository.mapper;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskStatus;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.function.Function;
+
+/**
+ * То же, что TaskServiceMapper, для строк R2DBC. Даты переводятся в часовой пояс приложения, как это делает JDBC.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveTaskMapper implements Function<Readable, Task> {
+
+    @Override
+    public Task apply(final Readable row) {
+        return Task.builder()
+                .id(row.get("id", Long.class))
+                .title(row.get("title", String.class))
+                .description(row.get("description", String.class))
+                .status(TaskStatus.valueOf(row.get("status", String.class)))
+                .deadLine(toLocalDateTime(row.get("dead_line", OffsetDateTime.class)).toLocalDate())
+                .author(row.get("author", Long.class))
+                .assignee(row.get("assignee", Long.class))
+                .createdAt(toLocalDateTime(row.get("created_at", OffsetDateTime.class)))
+                .updatedAt(toLocalDateTime(row.get("updated_at", OffsetDateTime.class)))
+                .version(row.get("version", Long.class))
+                .overdueAt(toLocalDateTime(row.get("overdue_at", OffsetDateTime.class)))
+                .parentId(row.get("parent_id", Long.class))
+                .build();
+    }
+
+    private LocalDateTime toLocalDateTime(final OffsetDateTime value) {
+        return value == null ? null : value.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+}
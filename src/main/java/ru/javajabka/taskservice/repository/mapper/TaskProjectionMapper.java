@@ -0,0 +1,83 @@
+package ru.javajabka.taskservice.repository.mapper;
+
+import org.springframework.jdbc.core.RowMapper;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskField;
+import ru.javajabka.taskservice.model.TaskStatus;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Читает только запрошенные колонки по их номеру в запросе: колонки идут в порядке fields, начиная с 1.
+ * Незапрошенные поля задачи остаются пустыми.
+ */
+public class TaskProjectionMapper implements RowMapper<Task> {
+
+    private final TaskField[] fields;
+
+    public TaskProjectionMapper(final List<TaskField> fields) {
+        this.fields = fields.toArray(TaskField[]::new);
+    }
+
+    @Override
+    public Task mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Task.TaskBuilder task = Task.builder();
+        for (int i = 0; i < fields.length; i++) {
+            int index = i + 1;
+            switch (fields[i]) {
+                case ID -> task.id(rs.getLong(index));
+                case TITLE -> task.title(rs.getString(index));
+                case DESCRIPTION -> task.description(rs.getString(index));
+                case STATUS -> task.status(TaskStatus.valueOf(rs.getString(index)));
+                case DEAD_LINE -> task.deadLine(rs.getDate(index).toLocalDate());
+                case AUTHOR -> task.author(rs.getLong(index));
+                case ASSIGNEE -> task.assignee(rs.getLong(index));
+                case CREATED_AT -> task.createdAt(rs.getTimestamp(index).toLocalDateTime());
+                case UPDATED_AT -> task.updatedAt(toLocalDateTime(rs.getTimestamp(index)));
+                case VERSION -> task.version(rs.getLong(index));
+                case OVERDUE_AT -> task.overdueAt(toLocalDateTime(rs.getTimestamp(index)));
+                case PARENT_ID -> task.parentId(toLong(rs.getLong(index), rs.wasNull()));
+            }
+        }
+        return task.build();
+    }
+
+    /**
+     * Копия задачи только с полями fields, например задачи из кэша для запроса с параметром fields.
+     */
+    public static Task project(final Task source, final List<TaskField> fields) {
+        Task.TaskBuilder task = Task.builder();
+        for (TaskField field : fields) {
+            switch (field) {
+                case ID -> task.id(source.getId());
+                case TITLE -> task.title(source.getTitle());
+                case DESCRIPTION -> task.description(source.getDescription());
+                case STATUS -> task.status(source.getStatus());
+                case DEAD_LINE -> task.deadLine(source.getDeadLine());
+                case AUTHOR -> task.author(source.getAuthor());
+                case ASSIGNEE -> task.assignee(source.getAssignee());
+                case CREATED_AT -> task.createdAt(source.getCreatedAt());
+                case UPDATED_AT -> task.updatedAt(source.getUpdatedAt());
+                case VERSION -> task.version(source.getVersion());
+                case OVERDUE_AT -> task.overdueAt(source.getOverdueAt());
+                case PARENT_ID -> task.parentId(source.getParentId());
+            }
+        }
+        return task.build();
+    }
+
+    public int getColumnCount() {
+        return fields.length;
+    }
+
+    private Long toLong(final long value, final boolean wasNull) {
+        return wasNull ? null : value;
+    }
+
+    private LocalDateTime toLocalDateTime(final Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
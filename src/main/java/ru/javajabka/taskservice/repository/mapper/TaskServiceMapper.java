@@ -21,6 +21,13 @@ public class TaskServiceMapper implements RowMapper<Task> {
             updated_at = timestamp.toLocalDateTime();
         }
 
+        Timestamp overdueAt = rs.getObject("overdue_at", Timestamp.class);
+
+        Long parentId = rs.getLong("parent_id");
+        if (rs.wasNull()) {
+            parentId = null;
+        }
+
         return Task.builder()
                 .id(rs.getLong("id"))
                 .title(rs.getString("title"))
@@ -31,6 +38,9 @@ public class TaskServiceMapper implements RowMapper<Task> {
                 .assignee(rs.getLong("assignee"))
                 .createdAt(rs.getObject("created_at", Timestamp.class).toLocalDateTime())
                 .updatedAt(updated_at)
+                .version(rs.getLong("version"))
+                .overdueAt(overdueAt == null ? null : overdueAt.toLocalDateTime())
+                .parentId(parentId)
                 .build();
     }
 }
\ No newline at end of file
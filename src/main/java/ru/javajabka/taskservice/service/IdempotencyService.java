@@ -0,0 +1,121 @@
+package ru.javajabka.taskservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.model.IdempotentResponse;
+import ru.javajabka.taskservice.repository.IdempotencyKeyRepository;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет запрос с ключом идемпотентности один раз. Повтор с тем же ключом получает сохранённый ответ
+ * без проверки пользователей и записи в базу. Ключ и ответ сохраняются в одной транзакции с изменением,
+ * поэтому при ошибке ключ освобождается и запрос можно повторить.
+ * Проверка запроса (в том числе обращение к сервису пользователей) выполняется до транзакции:
+ * занятый ключ держит блокировку строки, и параллельный повтор ждал бы ответа другого сервиса.
+ */
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Cache<String, IdempotentResponse> idempotencyCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${task.idempotency.ttl}")
+    private Duration ttl;
+
+    public <T> T execute(
+            final String key,
+            final String operation,
+            final Object request,
+            final Class<T> responseType,
+            final Runnable validation,
+            final Supplier<T> action
+    ) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(String.format("Ключ идемпотентности должен быть непустым и не длиннее %d символов", MAX_KEY_LENGTH));
+        }
+
+        String requestHash = DigestUtils.md5DigestAsHex((operation + ":" + toJson(request)).getBytes(StandardCharsets.UTF_8));
+        IdempotentResponse cached = idempotencyCache.getIfPresent(key);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        validation.run();
+        return transactionTemplate.execute(status -> executeOnce(key, requestHash, responseType, action));
+    }
+
+    private <T> T executeOnce(final String key, final String requestHash, final Class<T> responseType, final Supplier<T> action) {
+        Optional<Instant> expiresAt = idempotencyKeyRepository.claim(key, requestHash, ttl);
+        if (expiresAt.isEmpty()) {
+            Optional<IdempotentResponse> stored = idempotencyKeyRepository.get(key);
+            if (stored.isPresent() && stored.get().getResponse() != null) {
+                idempotencyCache.put(key, stored.get());
+                return replay(stored.get(), requestHash, responseType);
+            }
+            throw new BadRequestException(String.format("Запрос с ключом идемпотентности %s ещё выполняется", key));
+        }
+
+        T response = action.get();
+        IdempotentResponse idempotentResponse = IdempotentResponse.builder()
+                .requestHash(requestHash)
+                .response(toJson(response))
+                .expiresAt(expiresAt.get())
+                .build();
+        idempotencyKeyRepository.saveResponse(key, idempotentResponse.getResponse());
+        afterCommit(() -> idempotencyCache.put(key, idempotentResponse));
+        return response;
+    }
+
+    private <T> T replay(final IdempotentResponse stored, final String requestHash, final Class<T> responseType) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            throw new BadRequestException("Ключ идемпотентности уже использован для другого запроса");
+        }
+
+        try {
+            return objectMapper.readValue(stored.getResponse(), responseType);
+        } catch (JsonProcessingException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    private String toJson(final Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    private void afterCommit(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package ru.javajabka.taskservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskPage;
+import ru.javajabka.taskservice.model.TaskRequestDTO;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.model.TaskUpdateDTO;
+import ru.javajabka.taskservice.repository.ReactiveTaskRepository;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Реактивный вариант TaskService. Каждая операция пишет одним SQL-запросом, поэтому транзакции не нужны.
+ * Дополнительные чтения только проверяют данные: версия родителя перед созданием (внешний ключ всё равно
+ * не даст сослаться на удалённую из базы задачу) и текущая версия для сообщения об ошибке, если обновление не прошло.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveTaskService {
+
+    private final ReactiveUserService reactiveUserService;
+    private final ReactiveTaskRepository reactiveTaskRepository;
+
+    public Mono<Task> create(final TaskRequestDTO taskRequest) {
+        return Mono.fromRunnable(() -> TaskValidation.validateFields(taskRequest))
+                .then(Mono.defer(() -> reactiveUserService.checkUserId(List.of(taskRequest.getAuthor(), taskRequest.getAssignee()))))
+                .then(Mono.defer(() -> taskRequest.getParentId() == null
+                        ? Mono.empty()
+                        : reactiveTaskRepository.getVersion(taskRequest.getParentId()).then()))
+                .then(Mono.defer(() -> reactiveTaskRepository.create(Task.builder()
+                        .title(taskRequest.getTitle())
+                        .description(taskRequest.getDescription())
+                        .deadLine(taskRequest.getDeadLine())
+                        .author(taskRequest.getAuthor())
+                        .assignee(taskRequest.getAssignee())
+                        .parentId(taskRequest.getParentId())
+                        .build())));
+    }
+
+    public Mono<Task> getById(final Long id) {
+        return reactiveTaskRepository.getById(id);
+    }
+
+    public Mono<Long> getVersion(final Long id) {
+        return reactiveTaskRepository.getVersion(id);
+    }
+
+    /**
+     * Обновляет только переданные поля одним запросом.
+     * Если передана ожидаемая версия, задача обновится только при совпадении версии.
+     */
+    public Mono<Task> update(final TaskUpdateDTO taskUpdateDTO, final Long expectedVersion) {
+        Mono<Void> checkAssignee = Mono.defer(() -> taskUpdateDTO.getAssignee() == null
+                ? Mono.empty()
+                : reactiveUserService.checkUserId(List.of(taskUpdateDTO.getAssignee())));
+
+        return Mono.fromRunnable(() -> TaskValidation.validateFields(taskUpdateDTO))
+                .then(checkAssignee)
+                .then(Mono.defer(() -> reactiveTaskRepository.update(Task.builder()
+                        .id(taskUpdateDTO.getId())
+                        .title(taskUpdateDTO.getTitle())
+                        .description(taskUpdateDTO.getDescription())
+                        .status(taskUpdateDTO.getStatus())
+                        .deadLine(taskUpdateDTO.getDeadLine())
+                        .assignee(taskUpdateDTO.getAssignee())
+                        .version(expectedVersion)
+                        .build())));
+    }
+
+    /**
+     * Удаляет задачу: задача получает статус DELETE и позже переносится в архив.
+     */
+    public Mono<Void> delete(final Long id, final Long expectedVersion) {
+        return reactiveTaskRepository.update(Task.builder()
+                        .id(id)
+                        .status(TaskStatus.DELETE)
+                        .version(expectedVersion)
+                        .build())
+                .then();
+    }
+
+    public Mono<TaskPage> getAll(
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final String cursor,
+            final int limit
+    ) {
+        return Mono.defer(() -> {
+                    TaskValidation.validateLimit(limit);
+                    return reactiveTaskRepository.getAll(status, assignee, TaskCursor.decodeId(cursor), limit + 1).collectList();
+                })
+                .map(tasks -> TaskCursor.toPage(tasks, limit));
+    }
+
+    public Mono<TaskPage> search(
+            final String query,
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final String cursor,
+            final int limit
+    ) {
+        return Mono.defer(() -> {
+                    TaskValidation.validateQuery(query);
+                    TaskValidation.validateLimit(limit);
+                    TaskCursor.Search searchCursor = TaskCursor.decodeSearch(cursor);
+                    return reactiveTaskRepository.search(query.trim(), status, assignee, searchCursor.rank(), searchCursor.id(), limit + 1).collectList();
+                })
+                .map(tasks -> TaskCursor.toSearchPage(tasks, limit));
+    }
+
+    /**
+     * Выгружает все подходящие задачи, строки читаются из базы по мере того, как клиент их принимает.
+     */
+    public Flux<Task> streamAll(final Optional<TaskStatus> status, final Optional<Long> assignee) {
+        return reactiveTaskRepository.getAll(status, assignee, null, null);
+    }
+}
@@ -0,0 +1,128 @@
+package ru.javajabka.taskservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.exception.ServiceUnavailableException;
+import ru.javajabka.taskservice.model.User;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Проверка пользователей для профиля reactive: те же кэш, bulkhead и circuit breaker, что и у UserService,
+ * но запросы к сервису пользователей не занимают поток на время ожидания ответа.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserService {
+
+    private static final ParameterizedTypeReference<List<User>> USERS = new ParameterizedTypeReference<>() {};
+
+    private final WebClient userServiceWebClient;
+    private final UserService userService;
+    private final Cache<Long, Boolean> userIdCache;
+    private final CircuitBreaker userServiceCircuitBreaker;
+    private final Bulkhead userServiceBulkhead;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${user.client.lookup-chunk-size}")
+    private int lookupChunkSize;
+
+    public Mono<Void> checkUserId(final List<Long> userIds) {
+        return findMissingUserIds(userIds)
+                .flatMap(missingIds -> userIds.stream()
+                        .filter(missingIds::contains)
+                        .findFirst()
+                        .<Mono<Void>>map(id -> Mono.error(new BadRequestException(String.format("Пользователь с id %d не найден", id))))
+                        .orElse(Mono.empty()));
+    }
+
+    /**
+     * Возвращает идентификаторы, которых нет в сервисе пользователей.
+     * В сервис уходят только идентификаторы, которых ещё нет в кэше, большие наборы - частями параллельно.
+     */
+    public Mono<Set<Long>> findMissingUserIds(final Collection<Long> userIds) {
+        Set<Long> missingIds = new LinkedHashSet<>();
+        Set<Long> unknownIds = new LinkedHashSet<>();
+
+        for (Long id : new LinkedHashSet<>(userIds)) {
+            Boolean exists = userIdCache.getIfPresent(id);
+            if (exists == null) {
+                unknownIds.add(id);
+            } else if (!exists) {
+                missingIds.add(id);
+            }
+        }
+
+        if (unknownIds.isEmpty()) {
+            return Mono.just(missingIds);
+        }
+
+        return Flux.fromIterable(unknownIds)
+                .buffer(lookupChunkSize)
+                .flatMap(this::requestChunk)
+                .flatMapIterable(users -> users)
+                .collectList()
+                .map(users -> {
+                    missingIds.addAll(userService.rememberLookup(unknownIds, users));
+                    return missingIds;
+                });
+    }
+
+    private Mono<List<User>> requestChunk(final List<Long> userIds) {
+        return Mono.defer(() -> {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    return request(userIds)
+                            .doOnSuccess(users -> stop(sample, "success"))
+                            .doOnError(exc -> stop(sample, exc.getClass().getSimpleName()));
+                })
+                .transformDeferred(CircuitBreakerOperator.of(userServiceCircuitBreaker))
+                .transformDeferred(BulkheadOperator.of(userServiceBulkhead))
+                .onErrorMap(
+                        exc -> exc instanceof BulkheadFullException
+                                || exc instanceof CallNotPermittedException
+                                || exc instanceof WebClientRequestException
+                                || exc instanceof TimeoutException,
+                        exc -> new ServiceUnavailableException("Сервис пользователей недоступен, повторите запрос позже"));
+    }
+
+    private Mono<List<User>> request(final Collection<Long> userIds) {
+        return userServiceWebClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/user").queryParam("ids", userIds.toArray()).build())
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, response -> response.bodyToMono(JsonNode.class)
+                        .map(error -> new BadRequestException(error.get("message").asText())))
+                .onStatus(HttpStatusCode::is5xxServerError, response -> response.releaseBody()
+                        .then(Mono.fromSupplier(() -> new ServiceUnavailableException("Сервис пользователей недоступен, повторите запрос позже"))))
+                .bodyToMono(USERS)
+                .defaultIfEmpty(List.of());
+    }
+
+    private void stop(final Timer.Sample sample, final String outcome) {
+        sample.stop(Timer.builder("user.service.request")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,293 @@
+package ru.javajabka.taskservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskChange;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.repository.PgNotificationListener;
+import ru.javajabka.taskservice.repository.TaskChangeRepository;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Рассылает изменения задач подписчикам SSE. Изменения читаются из журнала task_change
+ * по уведомлению в канал task_change, поэтому подписчики любого экземпляра сервиса получают все изменения.
+ * <p>
+ * Номера изменений выдаются при вставке, а видны после коммита, поэтому изменения отдаются в порядке
+ * номеров транзакций и только после завершения всех более старых транзакций. Изменение долгой транзакции
+ * задерживает рассылку более новых, но не теряется.
+ * <p>
+ * У каждого подписчика своя ограниченная очередь. Если клиент не успевает её разбирать,
+ * очередь сбрасывается и подписчик догоняет остальных чтением журнала из базы.
+ * <p>
+ * Если нужные подписчику изменения уже удалены из журнала, он получает событие reset и продолжает
+ * с текущей позиции: пропущенное состояние клиент перечитывает обычными запросами, журнал заново не отправляется.
+ */
+@Service
+@Log4j2
+@RequiredArgsConstructor
+public class TaskChangeFeed {
+
+    private static final String CHANNEL = "task_change";
+    private static final int READ_LIMIT = 500;
+    private static final long PENDING_RETRY_MILLIS = 100;
+    private static final long RESYNC_MILLIS = 5000;
+
+    private final TaskChangeRepository taskChangeRepository;
+    private final PgNotificationListener pgNotificationListener;
+
+    @Value("${task.changes.subscriber-queue-size}")
+    private int subscriberQueueSize;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pollRequested = new AtomicBoolean();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("task-change-poller").daemon().factory());
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Все изменения не дальше released уже переданы в очереди подписчиков.
+     */
+    private volatile Position released;
+
+    @PostConstruct
+    public void start() {
+        released = Position.startOf(taskChangeRepository.getHorizon());
+        pgNotificationListener.subscribe(CHANNEL, e -> requestPoll(), this::requestPoll);
+        poller.scheduleWithFixedDelay(this::poll, RESYNC_MILLIS, RESYNC_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Подписывает клиента на изменения задач. Если передан lastEventId, сначала отправляются
+     * изменения после него из журнала. Если журнал его уже не содержит, клиент получает событие reset
+     * и изменения начиная с текущих.
+     */
+    public SseEmitter subscribe(final Optional<TaskStatus> status, final Optional<Long> assignee, final Long lastEventId) {
+        SseEmitter emitter = new SseEmitter();
+        Predicate<Task> filter = task -> status.map(e -> e == task.getStatus()).orElse(true)
+                && assignee.map(e -> e.equals(task.getAssignee())).orElse(true);
+
+        Position from = released;
+        if (lastEventId != null) {
+            Long xid = taskChangeRepository.getXid(lastEventId);
+            if (xid == null) {
+                try {
+                    sendReset(emitter, "Изменения после события " + lastEventId + " удалены из журнала");
+                } catch (IOException exc) {
+                    emitter.completeWithError(exc);
+                    return emitter;
+                }
+            } else {
+                from = new Position(xid, lastEventId);
+            }
+        }
+
+        Subscriber subscriber = new Subscriber(filter, emitter, from);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.wakeUp();
+        return emitter;
+    }
+
+    private static void sendReset(final SseEmitter emitter, final String message) throws IOException {
+        emitter.send(SseEmitter.event().name("reset").data(message));
+    }
+
+    private void requestPoll() {
+        if (pollRequested.compareAndSet(false, true)) {
+            poller.execute(this::poll);
+        }
+    }
+
+    /**
+     * Выполняется только в потоке poller.
+     */
+    private void poll() {
+        pollRequested.set(false);
+        try {
+            if (subscribers.isEmpty()) {
+                released = Position.startOf(taskChangeRepository.getHorizon());
+                subscribers.forEach(Subscriber::resync);
+                return;
+            }
+
+            List<TaskChange> changes;
+            do {
+                Position from = released;
+                changes = taskChangeRepository.getReleasedAfter(from.xid(), from.seq(), READ_LIMIT);
+                if (isTrimmedAfter(from)) {
+                    released = Position.startOf(taskChangeRepository.getHorizon());
+                    subscribers.forEach(Subscriber::resync);
+                    return;
+                }
+                for (TaskChange change : changes) {
+                    released = Position.of(change);
+                    subscribers.forEach(subscriber -> subscriber.offer(change));
+                }
+            } while (changes.size() == READ_LIMIT);
+
+            if (taskChangeRepository.hasAfter(released.xid(), released.seq())) {
+                poller.schedule(this::poll, PENDING_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (RuntimeException exc) {
+            log.error("Ошибка чтения журнала изменений задач: {}", exc.getMessage());
+        }
+    }
+
+    /**
+     * Удалены ли из журнала изменения после позиции. Проверяется после чтения страницы:
+     * если очистка успела раньше чтения, это будет видно, а прочитанная страница будет отброшена.
+     */
+    private boolean isTrimmedAfter(final Position position) {
+        return Position.of(taskChangeRepository.getTrimmed()).isAfter(position);
+    }
+
+    /**
+     * Позиция в журнале: номер транзакции и номер изменения внутри неё.
+     */
+    private record Position(long xid, long seq) {
+
+        /**
+         * Позиция перед всеми изменениями транзакций, которые ещё не завершены или не начаты.
+         */
+        private static Position startOf(final long horizon) {
+            return new Position(horizon, 0);
+        }
+
+        private static Position of(final TaskChange change) {
+            return new Position(change.getXid(), change.getSeq());
+        }
+
+        private boolean isAfter(final Position other) {
+            return xid != other.xid ? xid > other.xid : seq > other.seq;
+        }
+    }
+
+    private final class Subscriber {
+
+        private final Predicate<Task> filter;
+        private final SseEmitter emitter;
+        private final BlockingQueue<TaskChange> queue = new ArrayBlockingQueue<>(subscriberQueueSize);
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        /**
+         * Очередь переполнена или подписчик ещё не прочитал журнал: изменения в очередь не добавляются.
+         */
+        private volatile boolean lagging = true;
+        private Position last;
+
+        private Subscriber(final Predicate<Task> filter, final SseEmitter emitter, final Position last) {
+            this.filter = filter;
+            this.emitter = emitter;
+            this.last = last;
+        }
+
+        private void offer(final TaskChange change) {
+            if (!lagging && !queue.offer(change)) {
+                lagging = true;
+            }
+            wakeUp();
+        }
+
+        /**
+         * Подписчик появился, пока журнал читался без подписчиков: пропущенное он дочитает из базы.
+         */
+        private void resync() {
+            lagging = true;
+            wakeUp();
+        }
+
+        private void wakeUp() {
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                do {
+                    if (lagging) {
+                        catchUp();
+                    }
+
+                    TaskChange change;
+                    while (!lagging && (change = queue.poll()) != null) {
+                        deliver(change);
+                    }
+                    sending.set(false);
+                } while ((lagging || !queue.isEmpty()) && sending.compareAndSet(false, true));
+            } catch (IOException | RuntimeException exc) {
+                subscribers.remove(this);
+                emitter.completeWithError(exc);
+            }
+        }
+
+        /**
+         * released читается после очистки очереди: всё, что не попало в очередь, уже есть в журнале до него.
+         * Если часть пропущенного уже удалена из журнала, подписчик получает reset и переходит сразу к released.
+         */
+        private void catchUp() throws IOException {
+            lagging = false;
+            queue.clear();
+            Position upto = released;
+
+            List<TaskChange> changes;
+            do {
+                Position from = last;
+                changes = taskChangeRepository.getAfter(from.xid(), from.seq(), upto.xid(), upto.seq(), READ_LIMIT);
+                if (isTrimmedAfter(from)) {
+                    sendReset(emitter, "Клиент отстал, пропущенные изменения удалены из журнала");
+                    if (upto.isAfter(last)) {
+                        last = upto;
+                    }
+                    return;
+                }
+                for (TaskChange change : changes) {
+                    deliver(change);
+                }
+            } while (changes.size() == READ_LIMIT);
+        }
+
+        private void deliver(final TaskChange change) throws IOException {
+            Position position = Position.of(change);
+            if (!position.isAfter(last)) {
+                return;
+            }
+
+            last = position;
+            if (filter.test(change.getTask())) {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(change.getSeq()))
+                        .name("task")
+                        .data(change.getTask(), MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+}
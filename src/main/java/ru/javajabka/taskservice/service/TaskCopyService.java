@@ -0,0 +1,186 @@
+package ru.javajabka.taskservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.model.TaskBatchResult;
+import ru.javajabka.taskservice.model.TaskImportResult;
+import ru.javajabka.taskservice.model.TaskRequestDTO;
+import ru.javajabka.taskservice.repository.TaskCopyRepository;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Массовая выгрузка и загрузка задач. Файл читается построчно и частями по task.import.chunk-size строк
+ * проверяется и загружается через COPY, поэтому в памяти одновременно находится только одна часть.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskCopyService {
+
+    private static final int MAX_ERRORS = 1000;
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private final TaskCopyRepository taskCopyRepository;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${task.import.chunk-size}")
+    private int chunkSize;
+
+    @Transactional(readOnly = true)
+    public long exportCsv(final OutputStream outputStream) {
+        return taskCopyRepository.exportCsv(outputStream);
+    }
+
+    /**
+     * CSV с заголовком: title,description,deadLine,author,assignee. Остальные колонки игнорируются,
+     * поэтому файл выгрузки можно загрузить обратно.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public TaskImportResult importCsv(final InputStream inputStream) {
+        try (MappingIterator<Map<String, String>> rows = CSV_MAPPER
+                .readerForMapOf(String.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            Import taskImport = new Import();
+            int line = 0;
+            while (rows.hasNextValue()) {
+                Map<String, String> row = rows.nextValue();
+                line++;
+                try {
+                    taskImport.add(line, objectMapper.convertValue(row, TaskRequestDTO.class));
+                } catch (IllegalArgumentException exc) {
+                    taskImport.reject(line, "Некорректные значения в строке");
+                }
+            }
+            return taskImport.finish();
+        } catch (IOException exc) {
+            throw new BadRequestException(String.format("Некорректный CSV: %s", exc.getMessage()));
+        }
+    }
+
+    /**
+     * NDJSON: одна задача в формате POST /api/v1/task на строку, пустые строки пропускаются.
+     * Номер строки в ошибках - номер строки в файле, пустые строки тоже считаются.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public TaskImportResult importNdjson(final InputStream inputStream) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            Import taskImport = new Import();
+            int line = 0;
+            String value;
+            while ((value = reader.readLine()) != null) {
+                line++;
+                if (value.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    taskImport.add(line, objectMapper.readValue(value, TaskRequestDTO.class));
+                } catch (JsonProcessingException exc) {
+                    taskImport.reject(line, "Некорректный JSON в строке");
+                }
+            }
+            return taskImport.finish();
+        } catch (IOException exc) {
+            throw new BadRequestException(String.format("Не удалось прочитать файл: %s", exc.getMessage()));
+        }
+    }
+
+    /**
+     * Состояние одной загрузки: текущая часть строк и отклонённые строки.
+     */
+    private final class Import {
+
+        private final Map<Integer, TaskRequestDTO> chunk = new LinkedHashMap<>();
+        private final List<TaskBatchResult> errors = new ArrayList<>();
+        private long staged;
+        private long rejected;
+
+        private Import() {
+            taskCopyRepository.createStaging();
+        }
+
+        private void add(final int line, final TaskRequestDTO taskRequest) {
+            try {
+                TaskValidation.validateFields(taskRequest);
+            } catch (BadRequestException exc) {
+                reject(line, exc.getMessage());
+                return;
+            }
+
+            chunk.put(line, taskRequest);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Проверяет пользователей части одним запросом по уникальным идентификаторам и загружает подходящие строки.
+         */
+        private void flush() {
+            Set<Long> userIds = new HashSet<>();
+            chunk.values().forEach(task -> {
+                userIds.add(task.getAuthor());
+                userIds.add(task.getAssignee());
+            });
+
+            Set<Long> missingUserIds = userService.findMissingUserIds(userIds);
+            if (!missingUserIds.isEmpty()) {
+                chunk.entrySet().removeIf(entry -> Stream.of(entry.getValue().getAuthor(), entry.getValue().getAssignee())
+                        .filter(missingUserIds::contains)
+                        .findFirst()
+                        .map(id -> {
+                            reject(entry.getKey(), String.format("Пользователь с id %d не найден", id));
+                            return true;
+                        })
+                        .orElse(false));
+            }
+
+            taskCopyRepository.copyToStaging(chunk);
+            staged += chunk.size();
+            chunk.clear();
+        }
+
+        private void reject(final int line, final String message) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(TaskBatchResult.builder()
+                        .index(line)
+                        .success(false)
+                        .message(message)
+                        .build());
+            }
+        }
+
+        private TaskImportResult finish() {
+            flush();
+            long rejectedBeforeInsert = rejected;
+            taskCopyRepository.insertFromStaging(this::reject);
+            return TaskImportResult.builder()
+                    .imported(staged - (rejected - rejectedBeforeInsert))
+                    .rejected(rejected)
+                    .errors(errors)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.javajabka.taskservice.service;
+
+import org.springframework.util.StringUtils;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskPage;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Курсоры страниц списка задач: id последней задачи, для поиска - ранг и id последней задачи.
+ */
+final class TaskCursor {
+
+    private TaskCursor() {
+    }
+
+    record Search(Float rank, Long id) {
+    }
+
+    /**
+     * tasks запрошены с limit + 1: лишняя задача означает, что есть следующая страница.
+     */
+    static TaskPage toPage(final List<Task> tasks, final int limit) {
+        return toPage(tasks, limit, task -> encode(task.getId().toString()));
+    }
+
+    static TaskPage toSearchPage(final List<Task> tasks, final int limit) {
+        return toPage(tasks, limit, task -> encode(task.getRank() + ":" + task.getId()));
+    }
+
+    static Long decodeId(final String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(decode(cursor));
+        } catch (IllegalArgumentException exc) {
+            throw new BadRequestException("Некорректный курсор страницы");
+        }
+    }
+
+    static Search decodeSearch(final String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return new Search(null, null);
+        }
+
+        try {
+            String[] value = decode(cursor).split(":");
+            if (value.length != 2) {
+                throw new BadRequestException("Некорректный курсор страницы");
+            }
+            return new Search(Float.valueOf(value[0]), Long.valueOf(value[1]));
+        } catch (IllegalArgumentException exc) {
+            throw new BadRequestException("Некорректный курсор страницы");
+        }
+    }
+
+    private static TaskPage toPage(final List<Task> tasks, final int limit, final Function<Task, String> cursorOf) {
+        if (tasks.size() <= limit) {
+            return TaskPage.builder().items(tasks).build();
+        }
+
+        List<Task> items = tasks.subList(0, limit);
+        return TaskPage.builder()
+                .items(items)
+                .nextCursor(cursorOf.apply(items.get(limit - 1)))
+                .build();
+    }
+
+    private static String encode(final String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(final String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
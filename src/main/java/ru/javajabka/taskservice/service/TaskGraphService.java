@@ -0,0 +1,102 @@
+package ru.javajabka.taskservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskTreeStats;
+import ru.javajabka.taskservice.repository.TaskGraphRepository;
+import ru.javajabka.taskservice.repository.TaskServiceRepository;
+import java.util.List;
+
+/**
+ * Подзадачи и зависимости между задачами. Изменения иерархии и зависимостей проверяются на цикл
+ * под advisory-блокировкой, чтения поддерева и цепочек выполняются одним запросом.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskGraphService {
+
+    private final TaskGraphRepository taskGraphRepository;
+    private final TaskServiceRepository taskServiceRepository;
+
+    /**
+     * Задача и все её подзадачи не глубже depth уровней в порядке обхода в глубину.
+     */
+    @Transactional(readOnly = true)
+    public List<Task> getSubtree(final Long id, final Integer depth) {
+        int maxDepth = depth == null ? TaskValidation.MAX_GRAPH_DEPTH : depth;
+        TaskValidation.validateDepth(maxDepth);
+
+        List<Task> subtree = taskGraphRepository.getSubtree(id, maxDepth);
+        if (subtree.isEmpty()) {
+            throw new BadRequestException(String.format("Задача с id %d не найдена", id));
+        }
+        return subtree;
+    }
+
+    @Transactional(readOnly = true)
+    public TaskTreeStats getSubtreeStats(final Long id) {
+        return taskGraphRepository.getSubtreeStats(id, TaskValidation.MAX_GRAPH_DEPTH);
+    }
+
+    /**
+     * Делает задачу подзадачей parentId, null переносит её на верхний уровень.
+     * Задачу нельзя перенести под саму себя или под свою подзадачу.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public Task setParent(final Long id, final Long parentId) {
+        if (parentId == null) {
+            return taskGraphRepository.setParent(id, null);
+        }
+
+        taskGraphRepository.lockHierarchy();
+        taskServiceRepository.getVersion(parentId);
+        if (taskGraphRepository.isAncestorOf(id, parentId)) {
+            throw new BadRequestException(String.format("Задачу %d нельзя сделать подзадачей %d: получится цикл", id, parentId));
+        }
+        return taskGraphRepository.setParent(id, parentId);
+    }
+
+    /**
+     * Все задачи, которых ждёт задача id, напрямую или через другие задачи, по возрастанию расстояния.
+     */
+    @Transactional(readOnly = true)
+    public List<Task> getBlockedBy(final Long id) {
+        taskServiceRepository.getVersion(id);
+        return taskGraphRepository.getBlockedBy(id, TaskValidation.MAX_GRAPH_DEPTH);
+    }
+
+    /**
+     * Все задачи, которые ждут задачу id, напрямую или через другие задачи, по возрастанию расстояния.
+     */
+    @Transactional(readOnly = true)
+    public List<Task> getBlocking(final Long id) {
+        taskServiceRepository.getVersion(id);
+        return taskGraphRepository.getBlocking(id, TaskValidation.MAX_GRAPH_DEPTH);
+    }
+
+    /**
+     * Отмечает, что задача taskId ждёт задачу blockedById. Зависимость, которая замкнёт цикл, отклоняется.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void addDependency(final Long taskId, final Long blockedById) {
+        if (taskId.equals(blockedById)) {
+            throw new BadRequestException("Задача не может зависеть от самой себя");
+        }
+
+        taskGraphRepository.lockDependencies();
+        taskServiceRepository.getVersion(taskId);
+        taskServiceRepository.getVersion(blockedById);
+        if (taskGraphRepository.isBlockedBy(blockedById, taskId)) {
+            throw new BadRequestException(String.format("Задача %d уже ждёт задачу %d: получится цикл", blockedById, taskId));
+        }
+        taskGraphRepository.addDependency(taskId, blockedById);
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    public void removeDependency(final Long taskId, final Long blockedById) {
+        taskGraphRepository.removeDependency(taskId, blockedById);
+    }
+}
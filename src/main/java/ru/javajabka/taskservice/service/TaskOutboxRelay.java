@@ -0,0 +1,83 @@
+package ru.javajabka.taskservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.javajabka.taskservice.model.TaskEvent;
+import ru.javajabka.taskservice.outbox.TaskEventSink;
+import ru.javajabka.taskservice.repository.TaskOutboxRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Переносит события задач из outbox в TaskEventSink пачками. Доставка как минимум однократная:
+ * событие удаляется из outbox только после успешной отправки, при ошибке пачка откладывается с растущей задержкой.
+ * Отправка идёт вне транзакции: пачка забирается на task.outbox.lease, который должен быть больше таймаута получателя.
+ */
+@Service
+@Log4j2
+public class TaskOutboxRelay {
+
+    private final TaskOutboxRepository taskOutboxRepository;
+    private final TaskEventSink taskEventSink;
+    private final Timer lagTimer;
+    private final Counter failedCounter;
+
+    @Value("${task.outbox.batch-size}")
+    private int batchSize;
+
+    @Value("${task.outbox.backoff}")
+    private Duration backoff;
+
+    @Value("${task.outbox.max-backoff}")
+    private Duration maxBackoff;
+
+    @Value("${task.outbox.lease}")
+    private Duration lease;
+
+    public TaskOutboxRelay(
+            final TaskOutboxRepository taskOutboxRepository,
+            final TaskEventSink taskEventSink,
+            final MeterRegistry meterRegistry
+    ) {
+        this.taskOutboxRepository = taskOutboxRepository;
+        this.taskEventSink = taskEventSink;
+        this.lagTimer = Timer.builder("task.outbox.lag")
+                .description("Время от изменения задачи до доставки события")
+                .register(meterRegistry);
+        this.failedCounter = meterRegistry.counter("task.outbox.failed");
+    }
+
+    /**
+     * Отправляет одну пачку событий и возвращает количество доставленных.
+     */
+    public int relay() {
+        List<TaskEvent> events = taskOutboxRepository.claimBatch(batchSize, lease);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = events.stream().map(TaskEvent::getId).toList();
+        try {
+            taskEventSink.publish(events);
+        } catch (RuntimeException exc) {
+            log.error("Не удалось отправить {} событий задач: {}", events.size(), exc.getMessage());
+            failedCounter.increment(events.size());
+            taskOutboxRepository.reschedule(ids, backoff, maxBackoff);
+            return 0;
+        }
+
+        taskOutboxRepository.delete(ids);
+        Instant now = Instant.now();
+        events.forEach(event -> lagTimer.record(Duration.between(event.getCreatedAt(), now)));
+        return events.size();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
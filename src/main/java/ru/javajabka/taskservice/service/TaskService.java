@@ -3,16 +3,28 @@ package ru.javajabka.taskservice.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
+import ru.javajabka.taskservice.model.TaskBatchResult;
 import ru.javajabka.taskservice.model.TaskUpdateDTO;
 import ru.javajabka.taskservice.exception.BadRequestException;
 import ru.javajabka.taskservice.model.TaskRequestDTO;
 import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskField;
+import ru.javajabka.taskservice.model.TaskPage;
+import ru.javajabka.taskservice.model.TaskStats;
 import ru.javajabka.taskservice.model.TaskStatus;
 import ru.javajabka.taskservice.repository.TaskServiceRepository;
-import java.time.LocalDate;
+import ru.javajabka.taskservice.repository.TaskStatsRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -20,88 +32,400 @@ public class TaskService {
 
     private final UserService userService;
     private final TaskServiceRepository taskServiceRepository;
+    private final TaskStatsRepository taskStatsRepository;
 
     @Transactional(rollbackFor = Exception.class)
     public Task create(final TaskRequestDTO taskRequest) {
         validate(taskRequest);
 
+        if (taskRequest.getParentId() != null) {
+            taskServiceRepository.getVersion(taskRequest.getParentId());
+        }
+
         Task task = Task.builder()
                 .title(taskRequest.getTitle())
                 .description(taskRequest.getDescription())
                 .deadLine(taskRequest.getDeadLine())
                 .author(taskRequest.getAuthor())
                 .assignee(taskRequest.getAssignee())
+                .parentId(taskRequest.getParentId())
                 .build();
 
         return taskServiceRepository.create(task);
     }
 
+    /**
+     * Создаёт пакет задач в одной транзакции. Пользователи и родительские задачи проверяются одним запросом
+     * по всем уникальным идентификаторам, результат возвращается по каждой задаче.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<TaskBatchResult> createBatch(final List<TaskRequestDTO> taskRequests) {
+        TaskValidation.validateBatchSize(taskRequests);
+
+        TaskBatchResult[] results = new TaskBatchResult[taskRequests.size()];
+        Set<String> titles = new HashSet<>();
+        for (int i = 0; i < taskRequests.size(); i++) {
+            TaskRequestDTO taskRequest = taskRequests.get(i);
+            try {
+                TaskValidation.validateFields(taskRequest);
+            } catch (BadRequestException exc) {
+                results[i] = failed(i, exc.getMessage());
+                continue;
+            }
+
+            if (!titles.add(taskRequest.getTitle())) {
+                results[i] = failed(i, String.format("Задача с названием %s уже есть в пакете", taskRequest.getTitle()));
+            }
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> parentIds = new HashSet<>();
+        for (int i = 0; i < taskRequests.size(); i++) {
+            if (results[i] == null) {
+                userIds.add(taskRequests.get(i).getAuthor());
+                userIds.add(taskRequests.get(i).getAssignee());
+                if (taskRequests.get(i).getParentId() != null) {
+                    parentIds.add(taskRequests.get(i).getParentId());
+                }
+            }
+        }
+
+        Set<Long> missingUserIds = userService.findMissingUserIds(userIds);
+        Set<Long> existingParentIds = taskServiceRepository.getByIds(parentIds).stream()
+                .filter(parent -> parent.getStatus() != TaskStatus.DELETE)
+                .map(Task::getId)
+                .collect(Collectors.toSet());
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskRequests.size(); i++) {
+            TaskRequestDTO taskRequest = taskRequests.get(i);
+            if (results[i] != null) {
+                continue;
+            }
+
+            Optional<Long> missingUserId = Stream.of(taskRequest.getAuthor(), taskRequest.getAssignee())
+                    .filter(missingUserIds::contains)
+                    .findFirst();
+            if (missingUserId.isPresent()) {
+                results[i] = failed(i, String.format("Пользователь с id %d не найден", missingUserId.get()));
+                continue;
+            }
+
+            if (taskRequest.getParentId() != null && !existingParentIds.contains(taskRequest.getParentId())) {
+                results[i] = failed(i, String.format("Задача с id %d не найдена", taskRequest.getParentId()));
+                continue;
+            }
+
+            tasks.add(Task.builder()
+                    .title(taskRequest.getTitle())
+                    .description(taskRequest.getDescription())
+                    .deadLine(taskRequest.getDeadLine())
+                    .author(taskRequest.getAuthor())
+                    .assignee(taskRequest.getAssignee())
+                    .parentId(taskRequest.getParentId())
+                    .build());
+        }
+
+        Map<String, Task> createdByTitle = taskServiceRepository.createBatch(tasks).stream()
+                .collect(Collectors.toMap(Task::getTitle, Function.identity()));
+
+        for (int i = 0; i < taskRequests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+
+            String title = taskRequests.get(i).getTitle();
+            Task created = createdByTitle.get(title);
+            results[i] = created != null
+                    ? succeeded(i, created)
+                    : failed(i, String.format("Задача с названием %s уже существует", title));
+        }
+        return List.of(results);
+    }
+
     @Transactional(readOnly = true)
     public Task getById(final Long id) {
         return taskServiceRepository.getById(id);
     }
 
+    /**
+     * Задача только с запрошенными полями: из базы читаются только их колонки.
+     */
+    @Transactional(readOnly = true)
+    public Task getById(final Long id, final Set<TaskField> fields) {
+        return fields.containsAll(TaskField.ALL)
+                ? taskServiceRepository.getById(id)
+                : taskServiceRepository.getById(id, fields);
+    }
+
+    /**
+     * Обновляет только переданные поля одним запросом.
+     * Если передана ожидаемая версия, задача обновится только при совпадении версии.
+     */
     @Transactional(rollbackFor = Exception.class)
-    public Task update(final TaskUpdateDTO taskUpdateDTO) {
+    public Task update(final TaskUpdateDTO taskUpdateDTO, final Long expectedVersion) {
 
         validate(taskUpdateDTO);
-        Task foundTask = taskServiceRepository.getById(taskUpdateDTO.getId());
 
         Task task = Task.builder()
                 .id(taskUpdateDTO.getId())
-                .title(Optional.ofNullable(taskUpdateDTO.getTitle()).orElse(foundTask.getTitle()))
-                .description(Optional.ofNullable(taskUpdateDTO.getDescription()).orElse(foundTask.getDescription()))
-                .status(Optional.ofNullable(taskUpdateDTO.getStatus()).orElse(foundTask.getStatus()))
-                .deadLine(Optional.ofNullable(taskUpdateDTO.getDeadLine()).orElse(foundTask.getDeadLine()))
-                .assignee(Optional.ofNullable(taskUpdateDTO.getAssignee()).orElse(foundTask.getAssignee()))
+                .title(taskUpdateDTO.getTitle())
+                .description(taskUpdateDTO.getDescription())
+                .status(taskUpdateDTO.getStatus())
+                .deadLine(taskUpdateDTO.getDeadLine())
+                .assignee(taskUpdateDTO.getAssignee())
+                .version(expectedVersion)
                 .build();
 
         return taskServiceRepository.update(task);
     }
 
-    @Transactional(readOnly = true)
-    public List<Task> getAll(
-            final Optional<TaskStatus> status,
-            final Optional<Long> assignee
-    ) {
-        return taskServiceRepository.getAll(status, assignee);
+    /**
+     * Удаляет задачу: задача получает статус DELETE и позже переносится в архив.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void delete(final Long id, final Long expectedVersion) {
+        taskServiceRepository.update(Task.builder()
+                .id(id)
+                .status(TaskStatus.DELETE)
+                .version(expectedVersion)
+                .build());
     }
 
-    private void validate(final TaskRequestDTO taskRequest) {
-        if (taskRequest == null) {
-            throw new BadRequestException("Введите значения для задачи");
+    /**
+     * Обновляет пакет задач в одной транзакции: одна проверка ответственных,
+     * одна проверка занятых названий и один JDBC batch на все обновления.
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<TaskBatchResult> updateBatch(final List<TaskUpdateDTO> taskUpdates) {
+        TaskValidation.validateBatchSize(taskUpdates);
+
+        TaskBatchResult[] results = new TaskBatchResult[taskUpdates.size()];
+        Set<Long> ids = new HashSet<>();
+        Map<String, Long> idByTitle = new HashMap<>();
+        for (int i = 0; i < taskUpdates.size(); i++) {
+            TaskUpdateDTO taskUpdateDTO = taskUpdates.get(i);
+            try {
+                TaskValidation.validateFields(taskUpdateDTO);
+            } catch (BadRequestException exc) {
+                results[i] = failed(i, exc.getMessage());
+                continue;
+            }
+
+            if (!ids.add(taskUpdateDTO.getId())) {
+                results[i] = failed(i, String.format("Задача с id %d уже есть в пакете", taskUpdateDTO.getId()));
+            } else if (taskUpdateDTO.getTitle() != null
+                    && idByTitle.putIfAbsent(taskUpdateDTO.getTitle(), taskUpdateDTO.getId()) != null) {
+                results[i] = failed(i, String.format("Задача с названием %s уже есть в пакете", taskUpdateDTO.getTitle()));
+            }
         }
 
-        if (!StringUtils.hasText(taskRequest.getTitle())) {
-            throw new BadRequestException("Введите название задачи");
+        Set<Long> assignees = new HashSet<>();
+        for (int i = 0; i < taskUpdates.size(); i++) {
+            if (results[i] == null && taskUpdates.get(i).getAssignee() != null) {
+                assignees.add(taskUpdates.get(i).getAssignee());
+            }
         }
 
-        if (!StringUtils.hasText(taskRequest.getDescription())) {
-            throw new BadRequestException("Введите описание задачи");
+        Set<Long> missingUserIds = userService.findMissingUserIds(assignees);
+        Map<String, Long> existingIdByTitle = taskServiceRepository.getIdByTitles(idByTitle.keySet());
+        List<Integer> indexes = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskUpdates.size(); i++) {
+            TaskUpdateDTO taskUpdateDTO = taskUpdates.get(i);
+            if (results[i] != null) {
+                continue;
+            }
+
+            if (taskUpdateDTO.getAssignee() != null && missingUserIds.contains(taskUpdateDTO.getAssignee())) {
+                results[i] = failed(i, String.format("Пользователь с id %d не найден", taskUpdateDTO.getAssignee()));
+                continue;
+            }
+
+            Long titleOwner = taskUpdateDTO.getTitle() == null ? null : existingIdByTitle.get(taskUpdateDTO.getTitle());
+            if (titleOwner != null && !titleOwner.equals(taskUpdateDTO.getId())) {
+                results[i] = failed(i, String.format("Задача с названием %s уже существует", taskUpdateDTO.getTitle()));
+                continue;
+            }
+
+            indexes.add(i);
+            tasks.add(Task.builder()
+                    .id(taskUpdateDTO.getId())
+                    .title(taskUpdateDTO.getTitle())
+                    .description(taskUpdateDTO.getDescription())
+                    .status(taskUpdateDTO.getStatus())
+                    .deadLine(taskUpdateDTO.getDeadLine())
+                    .assignee(taskUpdateDTO.getAssignee())
+                    .build());
         }
 
-        if (taskRequest.getDeadLine() == null || taskRequest.getDeadLine().isBefore(LocalDate.now().plusDays(1))) {
-            throw new BadRequestException("Введите дату дедлайна позже текущей даты");
+        int[] updatedRows = tasks.isEmpty() ? new int[0] : taskServiceRepository.updateBatch(tasks);
+        Map<Long, Task> updatedById = taskServiceRepository.getByIds(tasks.stream().map(Task::getId).toList()).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        for (int j = 0; j < indexes.size(); j++) {
+            int i = indexes.get(j);
+            Long id = tasks.get(j).getId();
+            results[i] = updatedRows[j] > 0
+                    ? succeeded(i, updatedById.get(id))
+                    : failed(i, String.format("Задача с id %d не найдена", id));
         }
+        return List.of(results);
+    }
 
-        if (taskRequest.getAuthor() == null || taskRequest.getAuthor() <= 0) {
-            throw new BadRequestException("Введите идентификатор автора больше нуля");
+    @Transactional(readOnly = true)
+    public TaskPage getAll(
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final String cursor,
+            final int limit
+    ) {
+        TaskValidation.validateLimit(limit);
+        return TaskCursor.toPage(taskServiceRepository.getAll(status, assignee, TaskCursor.decodeId(cursor), limit + 1), limit);
+    }
+
+    /**
+     * Страница задач только с запрошенными полями: из базы читаются только их колонки.
+     */
+    @Transactional(readOnly = true)
+    public TaskPage getAll(
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final String cursor,
+            final int limit,
+            final Set<TaskField> fields
+    ) {
+        if (fields.containsAll(TaskField.ALL)) {
+            return getAll(status, assignee, cursor, limit);
         }
 
-        if (taskRequest.getAssignee() == null || taskRequest.getAssignee() <= 0) {
-            throw new BadRequestException("Введите идентификатор ответственного больше нуля");
+        TaskValidation.validateLimit(limit);
+        return TaskCursor.toPage(taskServiceRepository.getAll(status, assignee, TaskCursor.decodeId(cursor), limit + 1, fields), limit);
+    }
+
+    /**
+     * Полнотекстовый поиск по названию и описанию. Курсор страницы хранит ранг и id последней задачи.
+     */
+    @Transactional(readOnly = true)
+    public TaskPage search(
+            final String query,
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final String cursor,
+            final int limit
+    ) {
+        TaskValidation.validateQuery(query);
+        TaskValidation.validateLimit(limit);
+
+        TaskCursor.Search searchCursor = TaskCursor.decodeSearch(cursor);
+        List<Task> tasks = taskServiceRepository.search(query.trim(), status, assignee, searchCursor.rank(), searchCursor.id(), limit + 1);
+        return TaskCursor.toSearchPage(tasks, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public TaskPage search(
+            final String query,
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final String cursor,
+            final int limit,
+            final Set<TaskField> fields
+    ) {
+        if (fields.containsAll(TaskField.ALL)) {
+            return search(query, status, assignee, cursor, limit);
         }
+
+        TaskValidation.validateQuery(query);
+        TaskValidation.validateLimit(limit);
+
+        TaskCursor.Search searchCursor = TaskCursor.decodeSearch(cursor);
+        List<Task> tasks = taskServiceRepository.search(query.trim(), status, assignee, searchCursor.rank(), searchCursor.id(), limit + 1, fields);
+        return TaskCursor.toSearchPage(tasks, limit);
+    }
+
+    /**
+     * Та же страница, что и search, но задачи содержат только id и version: для проверки If-None-Match
+     * без чтения описаний и остальных колонок найденных задач.
+     */
+    @Transactional(readOnly = true)
+    public TaskPage searchVersions(
+            final String query,
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final String cursor,
+            final int limit
+    ) {
+        return search(query, status, assignee, cursor, limit, Set.of());
+    }
+
+    /**
+     * Та же страница, что и getAll, но задачи содержат только id и version.
+     */
+    @Transactional(readOnly = true)
+    public TaskPage getAllVersions(
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final String cursor,
+            final int limit
+    ) {
+        TaskValidation.validateLimit(limit);
+        return TaskCursor.toPage(taskServiceRepository.getAllVersions(status, assignee, TaskCursor.decodeId(cursor), limit + 1), limit);
+    }
+
+    /**
+     * Количество задач по статусу, ответственному и просрочке. Удалённые задачи не учитываются.
+     */
+    @Transactional(readOnly = true)
+    public TaskStats getStats() {
+        return taskStatsRepository.getStats();
+    }
+
+    @Transactional(readOnly = true)
+    public Long getVersion(final Long id) {
+        return taskServiceRepository.getVersion(id);
+    }
+
+    /**
+     * Выгружает все подходящие задачи построчно, не накапливая их в памяти.
+     * Должен выполняться в транзакции, иначе драйвер PostgreSQL игнорирует fetch size.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(
+            final Optional<TaskStatus> status,
+            final Optional<Long> assignee,
+            final Consumer<Task> consumer
+    ) {
+        taskServiceRepository.streamAll(status, assignee, consumer);
+    }
+
+    private TaskBatchResult succeeded(final int index, final Task task) {
+        return TaskBatchResult.builder()
+                .index(index)
+                .success(true)
+                .task(task)
+                .build();
+    }
+
+    private TaskBatchResult failed(final int index, final String message) {
+        return TaskBatchResult.builder()
+                .index(index)
+                .success(false)
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Проверяет поля и пользователей задачи без записи в базу. Найденные пользователи кэшируются,
+     * поэтому повторная проверка при создании не обращается к сервису пользователей.
+     */
+    public void validate(final TaskRequestDTO taskRequest) {
+        TaskValidation.validateFields(taskRequest);
         userService.checkUserId(List.of(taskRequest.getAuthor(), taskRequest.getAssignee()));
     }
 
-    private void validate(final TaskUpdateDTO taskUpdateDTO) {
-        if (taskUpdateDTO != null && taskUpdateDTO.getDeadLine() != null) {
-            if (taskUpdateDTO.getDeadLine().isBefore(LocalDate.now().plusDays(1))) {
-                throw new BadRequestException("Введите дату дедлайна позже текущей даты");
-            }
-        }
+    public void validate(final TaskUpdateDTO taskUpdateDTO) {
+        TaskValidation.validateFields(taskUpdateDTO);
 
-        if (taskUpdateDTO != null && taskUpdateDTO.getAssignee() != null) {
+        if (taskUpdateDTO.getAssignee() != null) {
             userService.checkUserId(List.of(taskUpdateDTO.getAssignee()));
         }
     }
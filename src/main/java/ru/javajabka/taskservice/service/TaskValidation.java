@@ -0,0 +1,94 @@
+package ru.javajabka.taskservice.service;
+
+import org.springframework.util.StringUtils;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.model.TaskRequestDTO;
+import ru.javajabka.taskservice.model.TaskUpdateDTO;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Проверки запросов к задачам, общие для блокирующего и реактивного API.
+ */
+final class TaskValidation {
+
+    static final int MAX_PAGE_SIZE = 500;
+    static final int MAX_BATCH_SIZE = 10000;
+    static final int MAX_QUERY_LENGTH = 200;
+    static final int MAX_GRAPH_DEPTH = 1000;
+
+    private TaskValidation() {
+    }
+
+    static void validateLimit(final int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException(String.format("Размер страницы должен быть от 1 до %d", MAX_PAGE_SIZE));
+        }
+    }
+
+    static void validateQuery(final String query) {
+        if (!StringUtils.hasText(query)) {
+            throw new BadRequestException("Введите поисковый запрос");
+        }
+
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException(String.format("Поисковый запрос должен быть не длиннее %d символов", MAX_QUERY_LENGTH));
+        }
+    }
+
+    static void validateDepth(final int depth) {
+        if (depth < 1 || depth > MAX_GRAPH_DEPTH) {
+            throw new BadRequestException(String.format("Глубина должна быть от 1 до %d", MAX_GRAPH_DEPTH));
+        }
+    }
+
+    static void validateBatchSize(final List<?> batch) {
+        if (batch == null || batch.isEmpty()) {
+            throw new BadRequestException("Передайте хотя бы одну задачу");
+        }
+
+        if (batch.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException(String.format("В пакете может быть не больше %d задач", MAX_BATCH_SIZE));
+        }
+    }
+
+    static void validateFields(final TaskRequestDTO taskRequest) {
+        if (taskRequest == null) {
+            throw new BadRequestException("Введите значения для задачи");
+        }
+
+        if (!StringUtils.hasText(taskRequest.getTitle())) {
+            throw new BadRequestException("Введите название задачи");
+        }
+
+        if (!StringUtils.hasText(taskRequest.getDescription())) {
+            throw new BadRequestException("Введите описание задачи");
+        }
+
+        if (taskRequest.getDeadLine() == null || taskRequest.getDeadLine().isBefore(LocalDate.now().plusDays(1))) {
+            throw new BadRequestException("Введите дату дедлайна позже текущей даты");
+        }
+
+        if (taskRequest.getAuthor() == null || taskRequest.getAuthor() <= 0) {
+            throw new BadRequestException("Введите идентификатор автора больше нуля");
+        }
+
+        if (taskRequest.getAssignee() == null || taskRequest.getAssignee() <= 0) {
+            throw new BadRequestException("Введите идентификатор ответственного больше нуля");
+        }
+
+        if (taskRequest.getParentId() != null && taskRequest.getParentId() <= 0) {
+            throw new BadRequestException("Введите идентификатор родительской задачи больше нуля");
+        }
+    }
+
+    static void validateFields(final TaskUpdateDTO taskUpdateDTO) {
+        if (taskUpdateDTO == null || taskUpdateDTO.getId() == null) {
+            throw new BadRequestException("Введите идентификатор задачи");
+        }
+
+        if (taskUpdateDTO.getDeadLine() != null && taskUpdateDTO.getDeadLine().isBefore(LocalDate.now().plusDays(1))) {
+            throw new BadRequestException("Введите дату дедлайна позже текущей даты");
+        }
+    }
+}
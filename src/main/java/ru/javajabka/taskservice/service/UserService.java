@@ -1,36 +1,170 @@
 package ru.javajabka.taskservice.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.exception.ServiceUnavailableException;
 import ru.javajabka.taskservice.model.User;
 
-import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final RestTemplate restTemplate;
+    private final Cache<Long, Boolean> userIdCache;
+    private final CircuitBreaker userServiceCircuitBreaker;
+    private final Bulkhead userServiceBulkhead;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    private final MeterRegistry meterRegistry;
 
     @Value("${url.service.user}")
     private String userServiceUrl;
 
+    @Value("${user.client.lookup-chunk-size}")
+    private int lookupChunkSize;
+
     public void checkUserId(final List<Long> userIds) {
+        Set<Long> missingIds = findMissingUserIds(userIds);
+
+        userIds.stream().filter(missingIds::contains).findFirst()
+                .ifPresent(
+                    (id) -> {
+                        throw new BadRequestException(String.format("Пользователь с id %d не найден", id));
+                    }
+        );
+    }
 
+    /**
+     * Возвращает идентификаторы, которых нет в сервисе пользователей.
+     * В сервис уходят только идентификаторы, которых ещё нет в кэше.
+     */
+    public Set<Long> findMissingUserIds(final Collection<Long> userIds) {
+        Set<Long> missingIds = new LinkedHashSet<>();
+        Set<Long> unknownIds = new LinkedHashSet<>();
+
+        for (Long id : new LinkedHashSet<>(userIds)) {
+            Boolean exists = userIdCache.getIfPresent(id);
+            if (exists == null) {
+                unknownIds.add(id);
+            } else if (!exists) {
+                missingIds.add(id);
+            }
+        }
+
+        if (unknownIds.isEmpty()) {
+            return missingIds;
+        }
+
+        missingIds.addAll(rememberLookup(unknownIds, requestUsers(unknownIds)));
+        return missingIds;
+    }
+
+    /**
+     * Сопоставляет запрошенные идентификаторы с ответом сервиса, сохраняет результат в кэш
+     * и возвращает идентификаторы, которых в ответе нет.
+     */
+    Set<Long> rememberLookup(final Collection<Long> requestedIds, final List<User> users) {
+        Set<Long> foundIds = users.stream()
+                .map(User::getId)
+                .collect(Collectors.toSet());
+
+        Set<Long> missingIds = new LinkedHashSet<>();
+        for (Long id : requestedIds) {
+            boolean exists = foundIds.contains(id);
+            userIdCache.put(id, exists);
+            if (!exists) {
+                missingIds.add(id);
+            }
+        }
+        return missingIds;
+    }
+
+    /**
+     * Большие наборы идентификаторов делятся на части, чтобы не упираться в длину URL.
+     * Части запрашиваются параллельно, общее число запросов ограничивает bulkhead.
+     */
+    private List<User> requestUsers(final Collection<Long> userIds) {
+        List<Long> ids = List.copyOf(userIds);
+        if (ids.size() <= lookupChunkSize) {
+            return requestChunk(ids);
+        }
+
+        List<CompletableFuture<List<User>>> futures = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += lookupChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + lookupChunkSize, ids.size()));
+            futures.add(applicationTaskExecutor.submitCompletable(() -> requestChunk(chunk)));
+        }
+
+        List<User> users = new ArrayList<>();
+        for (CompletableFuture<List<User>> future : futures) {
+            try {
+                users.addAll(future.join());
+            } catch (CompletionException exc) {
+                if (exc.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw exc;
+            }
+        }
+        return users;
+    }
+
+    private List<User> requestChunk(final Collection<Long> userIds) {
+        try {
+            return userServiceBulkhead.executeSupplier(
+                    () -> userServiceCircuitBreaker.executeSupplier(() -> exchange(userIds))
+            );
+        } catch (BulkheadFullException | CallNotPermittedException | ResourceAccessException exc) {
+            throw new ServiceUnavailableException("Сервис пользователей недоступен, повторите запрос позже");
+        }
+    }
+
+    private List<User> exchange(final Collection<Long> userIds) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return request(userIds);
+        } catch (RuntimeException exc) {
+            outcome = exc.getClass().getSimpleName();
+            throw exc;
+        } finally {
+            sample.stop(Timer.builder("user.service.request")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private List<User> request(final Collection<Long> userIds) {
         String url = UriComponentsBuilder
-                .fromUriString(userServiceUrl + "/api/v1/user?ids={ids}")
-                .queryParam("ids", "{ids}")
+                .fromUriString(userServiceUrl)
+                .path("/api/v1/user")
+                .queryParam("ids", userIds.toArray())
                 .encode()
-                .buildAndExpand(userIds.toArray())
                 .toUriString();
 
         ResponseEntity<List<User>> responseEntity =
@@ -41,13 +175,6 @@ public class UserService {
                         new ParameterizedTypeReference<>() {}
                 );
 
-        userIds.stream().filter(e -> !responseEntity.getBody().stream()
-                .map(User::getId).toList()
-                .contains(e)).findFirst()
-                .ifPresent(
-                    (id) -> {
-                        throw new BadRequestException(String.format("Пользователь с id %d не найден", id));
-                    }
-        );
+        return Optional.ofNullable(responseEntity.getBody()).orElse(List.of());
     }
-}
\ No newline at end of file
+}
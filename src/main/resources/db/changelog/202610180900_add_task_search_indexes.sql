@@ -0,0 +1,5 @@
+CREATE INDEX task_active_assignee_id_idx ON task_service.task (assignee, id) WHERE status <> 'DELETE';
+
+CREATE INDEX task_assignee_status_id_idx ON task_service.task (assignee, status, id);
+
+CREATE INDEX task_status_id_idx ON task_service.task (status, id)
@@ -0,0 +1 @@
+ALTER TABLE task_service.task ADD COLUMN version BIGINT NOT NULL DEFAULT 0
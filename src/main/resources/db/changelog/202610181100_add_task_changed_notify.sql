@@ -0,0 +1,13 @@
+--liquibase formatted sql
+
+--changeset javajabka:202610181100_add_task_changed_notify splitStatements:false
+CREATE FUNCTION task_service.notify_task_changed() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('task_changed', OLD.id::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER task_changed_notify
+    AFTER UPDATE OR DELETE ON task_service.task
+    FOR EACH ROW EXECUTE FUNCTION task_service.notify_task_changed();
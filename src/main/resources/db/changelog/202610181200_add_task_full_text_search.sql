@@ -0,0 +1,10 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE task_service.task ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('russian'::regconfig, title), 'A') ||
+    setweight(to_tsvector('russian'::regconfig, description), 'B')
+) STORED;
+
+CREATE INDEX task_search_vector_idx ON task_service.task USING gin (search_vector);
+
+CREATE INDEX task_title_trgm_idx ON task_service.task USING gin (title gin_trgm_ops)
@@ -0,0 +1,42 @@
+--liquibase formatted sql
+
+--changeset javajabka:202610181300_add_task_counter splitStatements:false
+CREATE TABLE task_service.task_counter (
+    status VARCHAR NOT NULL,
+    assignee INT NOT NULL,
+    task_count BIGINT NOT NULL,
+    PRIMARY KEY (status, assignee)
+);
+
+INSERT INTO task_service.task_counter (status, assignee, task_count)
+SELECT status, assignee, count(*)
+FROM task_service.task
+GROUP BY status, assignee;
+
+CREATE FUNCTION task_service.count_task() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'UPDATE'
+            AND OLD.status = NEW.status
+            AND OLD.assignee = NEW.assignee THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE task_service.task_counter
+        SET task_count = task_count - 1
+        WHERE status = OLD.status AND assignee = OLD.assignee;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO task_service.task_counter (status, assignee, task_count)
+        VALUES (NEW.status, NEW.assignee, 1)
+        ON CONFLICT (status, assignee) DO UPDATE SET task_count = task_service.task_counter.task_count + 1;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER task_count
+    AFTER INSERT OR UPDATE OR DELETE ON task_service.task
+    FOR EACH ROW EXECUTE FUNCTION task_service.count_task();
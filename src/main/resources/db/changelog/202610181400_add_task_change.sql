@@ -0,0 +1,29 @@
+--liquibase formatted sql
+
+--changeset javajabka:202610181400_add_task_change splitStatements:false
+CREATE TABLE task_service.task_change (
+    seq BIGSERIAL PRIMARY KEY,
+    id BIGINT NOT NULL,
+    title VARCHAR NOT NULL,
+    description VARCHAR NOT NULL,
+    status VARCHAR NOT NULL,
+    dead_line TIMESTAMP WITH TIME ZONE NOT NULL,
+    author INT NOT NULL,
+    assignee INT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE,
+    version BIGINT NOT NULL
+);
+
+CREATE FUNCTION task_service.record_task_change() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO task_service.task_change (id, title, description, status, dead_line, author, assignee, created_at, updated_at, version)
+    VALUES (NEW.id, NEW.title, NEW.description, NEW.status, NEW.dead_line, NEW.author, NEW.assignee, NEW.created_at, NEW.updated_at, NEW.version);
+    PERFORM pg_notify('task_change', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER task_change_record
+    AFTER INSERT OR UPDATE ON task_service.task
+    FOR EACH ROW EXECUTE FUNCTION task_service.record_task_change();
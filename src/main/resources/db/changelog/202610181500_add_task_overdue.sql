@@ -0,0 +1,57 @@
+--liquibase formatted sql
+
+--changeset javajabka:202610181500_add_task_overdue splitStatements:false
+ALTER TABLE task_service.task ADD COLUMN overdue_at TIMESTAMP WITH TIME ZONE;
+
+ALTER TABLE task_service.task_change ADD COLUMN overdue_at TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX task_overdue_candidate_idx ON task_service.task (dead_line)
+    WHERE overdue_at IS NULL AND status NOT IN ('DONE', 'DELETE');
+
+CREATE OR REPLACE FUNCTION task_service.record_task_change() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO task_service.task_change (id, title, description, status, dead_line, author, assignee, created_at, updated_at, version, overdue_at)
+    VALUES (NEW.id, NEW.title, NEW.description, NEW.status, NEW.dead_line, NEW.author, NEW.assignee, NEW.created_at, NEW.updated_at, NEW.version, NEW.overdue_at);
+    PERFORM pg_notify('task_change', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE task_service.task_counter ADD COLUMN overdue BOOLEAN NOT NULL DEFAULT false;
+
+ALTER TABLE task_service.task_counter DROP CONSTRAINT task_counter_pkey, ADD PRIMARY KEY (status, assignee, overdue);
+
+CREATE OR REPLACE FUNCTION task_service.count_task() RETURNS trigger AS $$
+DECLARE
+    old_overdue BOOLEAN;
+    new_overdue BOOLEAN;
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        old_overdue := OLD.status != 'DONE' AND OLD.overdue_at IS NOT NULL;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        new_overdue := NEW.status != 'DONE' AND NEW.overdue_at IS NOT NULL;
+    END IF;
+
+    IF TG_OP = 'UPDATE'
+            AND OLD.status = NEW.status
+            AND OLD.assignee = NEW.assignee
+            AND old_overdue = new_overdue THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE task_service.task_counter
+        SET task_count = task_count - 1
+        WHERE status = OLD.status AND assignee = OLD.assignee AND overdue = old_overdue;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO task_service.task_counter (status, assignee, overdue, task_count)
+        VALUES (NEW.status, NEW.assignee, new_overdue, 1)
+        ON CONFLICT (status, assignee, overdue) DO UPDATE SET task_count = task_service.task_counter.task_count + 1;
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,19 @@
+CREATE TABLE task_service.task_archive (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR NOT NULL,
+    description VARCHAR NOT NULL,
+    status VARCHAR NOT NULL,
+    dead_line TIMESTAMP WITH TIME ZONE NOT NULL,
+    author INT NOT NULL,
+    assignee INT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE,
+    version BIGINT NOT NULL,
+    overdue_at TIMESTAMP WITH TIME ZONE,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX task_archive_assignee_id_idx ON task_service.task_archive (assignee, id);
+
+CREATE INDEX task_deleted_changed_at_idx ON task_service.task (coalesce(updated_at, created_at))
+    WHERE status = 'DELETE'
@@ -0,0 +1,8 @@
+CREATE TABLE task_service.idempotency_key (
+    key VARCHAR(255) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    response TEXT,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idempotency_key_expires_at_idx ON task_service.idempotency_key (expires_at)
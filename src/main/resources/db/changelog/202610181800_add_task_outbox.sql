@@ -0,0 +1,54 @@
+--liquibase formatted sql
+
+--changeset javajabka:202610181800_add_task_outbox splitStatements:false
+CREATE TABLE task_service.task_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR NOT NULL,
+    task_id BIGINT NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX task_outbox_next_attempt_at_idx ON task_service.task_outbox (next_attempt_at, id);
+
+CREATE FUNCTION task_service.write_task_outbox() RETURNS trigger AS $$
+DECLARE
+    task JSONB := jsonb_build_object(
+        'id', NEW.id,
+        'title', NEW.title,
+        'description', NEW.description,
+        'status', NEW.status,
+        'deadLine', NEW.dead_line::date,
+        'author', NEW.author,
+        'assignee', NEW.assignee,
+        'createdAt', NEW.created_at,
+        'updatedAt', NEW.updated_at,
+        'version', NEW.version,
+        'overdueAt', NEW.overdue_at
+    );
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO task_service.task_outbox (event_type, task_id, payload)
+        VALUES ('TASK_CREATED', NEW.id, jsonb_build_object('task', task));
+        RETURN NULL;
+    END IF;
+
+    IF OLD.status != NEW.status THEN
+        INSERT INTO task_service.task_outbox (event_type, task_id, payload)
+        VALUES ('TASK_STATUS_CHANGED', NEW.id, jsonb_build_object('previousStatus', OLD.status, 'task', task));
+    END IF;
+
+    IF OLD.assignee != NEW.assignee THEN
+        INSERT INTO task_service.task_outbox (event_type, task_id, payload)
+        VALUES ('TASK_ASSIGNED', NEW.id, jsonb_build_object('previousAssignee', OLD.assignee, 'task', task));
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER task_outbox_write
+    AFTER INSERT OR UPDATE ON task_service.task
+    FOR EACH ROW EXECUTE FUNCTION task_service.write_task_outbox();
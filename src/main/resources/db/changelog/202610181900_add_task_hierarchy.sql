@@ -0,0 +1,72 @@
+--liquibase formatted sql
+
+--changeset javajabka:202610181900_add_task_hierarchy splitStatements:false
+ALTER TABLE task_service.task ADD COLUMN parent_id INT REFERENCES task_service.task (id);
+
+ALTER TABLE task_service.task_change ADD COLUMN parent_id BIGINT;
+
+ALTER TABLE task_service.task_archive ADD COLUMN parent_id BIGINT;
+
+CREATE INDEX task_parent_id_idx ON task_service.task (parent_id, id) INCLUDE (status)
+    WHERE parent_id IS NOT NULL;
+
+CREATE TABLE task_service.task_dependency (
+    task_id INT NOT NULL REFERENCES task_service.task (id) ON DELETE CASCADE,
+    blocked_by_id INT NOT NULL REFERENCES task_service.task (id) ON DELETE CASCADE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    PRIMARY KEY (task_id, blocked_by_id),
+    CHECK (task_id != blocked_by_id)
+);
+
+CREATE INDEX task_dependency_blocked_by_id_idx ON task_service.task_dependency (blocked_by_id, task_id);
+
+CREATE OR REPLACE FUNCTION task_service.record_task_change() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO task_service.task_change (id, title, description, status, dead_line, author, assignee, created_at, updated_at, version, overdue_at, parent_id)
+    VALUES (NEW.id, NEW.title, NEW.description, NEW.status, NEW.dead_line, NEW.author, NEW.assignee, NEW.created_at, NEW.updated_at, NEW.version, NEW.overdue_at, NEW.parent_id);
+    PERFORM pg_notify('task_change', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION task_service.write_task_outbox() RETURNS trigger AS $$
+DECLARE
+    task JSONB := jsonb_build_object(
+        'id', NEW.id,
+        'title', NEW.title,
+        'description', NEW.description,
+        'status', NEW.status,
+        'deadLine', NEW.dead_line::date,
+        'author', NEW.author,
+        'assignee', NEW.assignee,
+        'createdAt', NEW.created_at,
+        'updatedAt', NEW.updated_at,
+        'version', NEW.version,
+        'overdueAt', NEW.overdue_at,
+        'parentId', NEW.parent_id
+    );
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO task_service.task_outbox (event_type, task_id, payload)
+        VALUES ('TASK_CREATED', NEW.id, jsonb_build_object('task', task));
+        RETURN NULL;
+    END IF;
+
+    IF OLD.status != NEW.status THEN
+        INSERT INTO task_service.task_outbox (event_type, task_id, payload)
+        VALUES ('TASK_STATUS_CHANGED', NEW.id, jsonb_build_object('previousStatus', OLD.status, 'task', task));
+    END IF;
+
+    IF OLD.assignee != NEW.assignee THEN
+        INSERT INTO task_service.task_outbox (event_type, task_id, payload)
+        VALUES ('TASK_ASSIGNED', NEW.id, jsonb_build_object('previousAssignee', OLD.assignee, 'task', task));
+    END IF;
+
+    IF OLD.parent_id IS DISTINCT FROM NEW.parent_id THEN
+        INSERT INTO task_service.task_outbox (event_type, task_id, payload)
+        VALUES ('TASK_MOVED', NEW.id, jsonb_build_object('previousParentId', OLD.parent_id, 'task', task));
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,13 @@
+--liquibase formatted sql
+
+--changeset javajabka:202610182000_add_task_change_xid splitStatements:false
+ALTER TABLE task_service.task_change ADD COLUMN xid BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint;
+
+CREATE INDEX task_change_xid_seq_idx ON task_service.task_change (xid, seq);
+
+CREATE TABLE task_service.task_change_trim (
+    xid BIGINT NOT NULL,
+    seq BIGINT NOT NULL
+);
+
+INSERT INTO task_service.task_change_trim (xid, seq) VALUES (0, 0);
@@ -0,0 +1,118 @@
+package ru.javajabka.taskservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.javajabka.taskservice.configuration.CacheConfiguration;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.model.IdempotentResponse;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskRequestDTO;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.repository.IdempotencyKeyRepository;
+import ru.javajabka.taskservice.service.IdempotencyService;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private Cache<String, IdempotentResponse> idempotencyCache;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    public void setUp() {
+        idempotencyCache = new CacheConfiguration().idempotencyCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        idempotencyService = new IdempotencyService(
+                idempotencyKeyRepository,
+                idempotencyCache,
+                new ObjectMapper().findAndRegisterModules(),
+                new TransactionTemplate(transactionManager)
+        );
+        ReflectionTestUtils.setField(idempotencyService, "ttl", Duration.ofHours(24));
+    }
+
+    @Test
+    public void shouldReturnStoredResponse_WhenRetryWithSameKey() {
+        TaskRequestDTO taskRequest = TaskRequestDTO.builder().title("Task 1").description("Desc for task 1").deadLine(LocalDate.of(2030, 5, 5)).author(1L).assignee(2L).build();
+        Task task = Task.builder().id(1L).title("Task 1").status(TaskStatus.TO_DO).deadLine(LocalDate.of(2030, 5, 5)).version(0L).build();
+        AtomicInteger calls = new AtomicInteger();
+
+        AtomicInteger validations = new AtomicInteger();
+
+        Mockito.when(idempotencyKeyRepository.claim(ArgumentMatchers.eq("key-1"), ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(Optional.of(Instant.now().plus(Duration.ofHours(24))));
+        Task first = idempotencyService.execute("key-1", "create", taskRequest, Task.class, validations::incrementAndGet, () -> {
+            calls.incrementAndGet();
+            return task;
+        });
+        Task retry = idempotencyService.execute("key-1", "create", taskRequest, Task.class, validations::incrementAndGet, () -> {
+            calls.incrementAndGet();
+            return task;
+        });
+
+        Assertions.assertEquals(task, first);
+        Assertions.assertEquals(task, retry);
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals(1, validations.get());
+        Mockito.verify(idempotencyKeyRepository).saveResponse(ArgumentMatchers.eq("key-1"), ArgumentMatchers.anyString());
+    }
+
+    @Test
+    public void shouldReturnException_WhenKeyReusedForOtherRequest() {
+        Task task = Task.builder().id(1L).title("Task 1").build();
+        Mockito.when(idempotencyKeyRepository.claim(ArgumentMatchers.eq("key-1"), ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(Optional.of(Instant.now().plus(Duration.ofHours(24))));
+        idempotencyService.execute("key-1", "create", "first", Task.class, () -> { }, () -> task);
+
+        final BadRequestException badRequestException = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> idempotencyService.execute("key-1", "create", "second", Task.class, () -> { }, () -> task)
+        );
+        Assertions.assertEquals("Ключ идемпотентности уже использован для другого запроса", badRequestException.getMessage());
+    }
+
+    @Test
+    public void shouldNotClaimKey_WhenValidationFails() {
+        final BadRequestException badRequestException = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> idempotencyService.execute("key-1", "create", "first", Task.class, () -> {
+                    throw new BadRequestException("Пользователь с id 100 не найден");
+                }, () -> Task.builder().build())
+        );
+
+        Assertions.assertEquals("Пользователь с id 100 не найден", badRequestException.getMessage());
+        Mockito.verifyNoInteractions(idempotencyKeyRepository, transactionManager);
+    }
+
+    @Test
+    public void shouldForgetResponse_WhenKeyExpiresBeforeCacheTtl() {
+        Task task = Task.builder().id(1L).title("Task 1").build();
+        Mockito.when(idempotencyKeyRepository.claim(ArgumentMatchers.eq("key-1"), ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(Optional.of(Instant.now().minusSeconds(1)));
+
+        idempotencyService.execute("key-1", "create", "first", Task.class, () -> { }, () -> task);
+
+        Assertions.assertNull(idempotencyCache.getIfPresent("key-1"));
+    }
+}
@@ -0,0 +1,100 @@
+package ru.javajabka.taskservice;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskRequestDTO;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.repository.ReactiveTaskRepository;
+import ru.javajabka.taskservice.service.ReactiveTaskService;
+import ru.javajabka.taskservice.service.ReactiveUserService;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveTaskServiceTest {
+
+    @Mock
+    private ReactiveTaskRepository reactiveTaskRepository;
+
+    @Mock
+    private ReactiveUserService reactiveUserService;
+
+    @InjectMocks
+    private ReactiveTaskService reactiveTaskService;
+
+    @Test
+    public void shouldReturnTask_WhenCreateValid() {
+        TaskRequestDTO taskRequest = TaskRequestDTO.builder().title("Task 1").description("Desc for task 1").deadLine(LocalDate.of(2030, 5, 5)).author(1L).assignee(2L).build();
+        Task task = Task.builder().title("Task 1").description("Desc for task 1").deadLine(LocalDate.of(2030, 5, 5)).author(1L).assignee(2L).build();
+
+        Mockito.when(reactiveUserService.checkUserId(List.of(1L, 2L))).thenReturn(Mono.empty());
+        Mockito.when(reactiveTaskRepository.create(task)).thenReturn(Mono.just(task));
+
+        StepVerifier.create(reactiveTaskService.create(taskRequest))
+                .expectNext(task)
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldReturnException_WhenCreate_And_UserNotFound() {
+        TaskRequestDTO taskRequest = TaskRequestDTO.builder().title("Task 1").description("Desc for task 1").deadLine(LocalDate.of(2030, 5, 5)).author(1L).assignee(2L).build();
+
+        Mockito.when(reactiveUserService.checkUserId(List.of(1L, 2L)))
+                .thenReturn(Mono.error(new BadRequestException("Пользователь с id 2 не найден")));
+
+        StepVerifier.create(reactiveTaskService.create(taskRequest))
+                .expectErrorMatches(exc -> exc instanceof BadRequestException && "Пользователь с id 2 не найден".equals(exc.getMessage()))
+                .verify();
+        Mockito.verify(reactiveTaskRepository, Mockito.never()).create(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void shouldReturnException_WhenCreate_And_NameEmpty() {
+        TaskRequestDTO taskRequest = TaskRequestDTO.builder().title("").description("Desc for task 1").deadLine(LocalDate.of(2030, 5, 5)).author(1L).assignee(2L).build();
+
+        StepVerifier.create(reactiveTaskService.create(taskRequest))
+                .expectErrorMatches(exc -> exc instanceof BadRequestException && "Введите название задачи".equals(exc.getMessage()))
+                .verify();
+        Mockito.verifyNoInteractions(reactiveUserService, reactiveTaskRepository);
+    }
+
+    @Test
+    public void shouldReturnPageWithCursor_WhenGetAllHasMore() {
+        Task first = Task.builder().id(1L).title("Task 1").status(TaskStatus.TO_DO).build();
+        Task second = Task.builder().id(2L).title("Task 2").status(TaskStatus.TO_DO).build();
+
+        Mockito.when(reactiveTaskRepository.getAll(Optional.empty(), Optional.empty(), null, 2))
+                .thenReturn(Flux.just(first, second));
+
+        StepVerifier.create(reactiveTaskService.getAll(Optional.empty(), Optional.empty(), null, 1))
+                .assertNext(page -> {
+                    Assertions.assertEquals(List.of(first), page.getItems());
+                    Assertions.assertNotNull(page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldSearchTrimmedQuery_WhenQueryHasSpaces() {
+        Task task = Task.builder().id(1L).title("Quarterly report").status(TaskStatus.TO_DO).build();
+
+        Mockito.when(reactiveTaskRepository.search("quarterly report", Optional.empty(), Optional.empty(), null, null, 11))
+                .thenReturn(Flux.just(task));
+
+        StepVerifier.create(reactiveTaskService.search("  quarterly report  ", Optional.empty(), Optional.empty(), null, 10))
+                .assertNext(page -> Assertions.assertEquals(List.of(task), page.getItems()))
+                .verifyComplete();
+    }
+}
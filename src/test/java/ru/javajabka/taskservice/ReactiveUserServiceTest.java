@@ -0,0 +1,68 @@
+package ru.javajabka.taskservice;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.exception.ServiceUnavailableException;
+import ru.javajabka.taskservice.service.ReactiveUserService;
+import ru.javajabka.taskservice.service.UserService;
+import java.util.List;
+
+public class ReactiveUserServiceTest {
+
+    private final Cache<Long, Boolean> userIdCache = Caffeine.newBuilder().maximumSize(100).build();
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.of("userService", CircuitBreakerConfig.custom()
+            .ignoreExceptions(BadRequestException.class)
+            .build());
+
+    @Test
+    public void shouldReturnException_WhenUserServiceFails() {
+        ReactiveUserService reactiveUserService = reactiveUserService(HttpStatus.INTERNAL_SERVER_ERROR, "");
+
+        StepVerifier.create(reactiveUserService.checkUserId(List.of(1L)))
+                .expectErrorMatches(exc -> exc instanceof ServiceUnavailableException
+                        && "Сервис пользователей недоступен, повторите запрос позже".equals(exc.getMessage()))
+                .verify();
+        Assertions.assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        Assertions.assertNull(userIdCache.getIfPresent(1L));
+    }
+
+    @Test
+    public void shouldReturnException_WhenUserServiceRejectsRequest() {
+        ReactiveUserService reactiveUserService = reactiveUserService(HttpStatus.BAD_REQUEST, "{\"message\":\"Некорректный id\"}");
+
+        StepVerifier.create(reactiveUserService.checkUserId(List.of(1L)))
+                .expectErrorMatches(exc -> exc instanceof BadRequestException && "Некорректный id".equals(exc.getMessage()))
+                .verify();
+        Assertions.assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    private ReactiveUserService reactiveUserService(final HttpStatus status, final String body) {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://localhost:8081/")
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(status)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(body)
+                        .build()))
+                .build();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserService userService = new UserService(null, userIdCache, circuitBreaker, Bulkhead.ofDefaults("userService"), null, meterRegistry);
+        ReactiveUserService reactiveUserService = new ReactiveUserService(webClient, userService, userIdCache, circuitBreaker, Bulkhead.ofDefaults("userService"), meterRegistry);
+        ReflectionTestUtils.setField(reactiveUserService, "lookupChunkSize", 2);
+        return reactiveUserService;
+    }
+}
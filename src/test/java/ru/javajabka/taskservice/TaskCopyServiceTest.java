@@ -0,0 +1,96 @@
+package ru.javajabka.taskservice;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.javajabka.taskservice.model.TaskBatchResult;
+import ru.javajabka.taskservice.model.TaskImportResult;
+import ru.javajabka.taskservice.model.TaskRequestDTO;
+import ru.javajabka.taskservice.repository.TaskCopyRepository;
+import ru.javajabka.taskservice.service.TaskCopyService;
+import ru.javajabka.taskservice.service.UserService;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskCopyServiceTest {
+
+    @Mock
+    private TaskCopyRepository taskCopyRepository;
+
+    @Mock
+    private UserService userService;
+
+    private TaskCopyService taskCopyService;
+
+    @BeforeEach
+    public void setUp() {
+        taskCopyService = new TaskCopyService(taskCopyRepository, userService, Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(taskCopyService, "chunkSize", 2);
+    }
+
+    @Test
+    public void shouldStageValidRowsInChunks_WhenImportCsv() {
+        String csv = """
+                title,description,deadLine,author,assignee
+                Task 1,Desc for task 1,2030-05-05,1,2
+                Task 2,Desc for task 2,2030-05-05,1,100
+                ,Desc for task 3,2030-05-05,1,2
+                Task 4,Desc for task 4,not-a-date,1,2
+                Task 5,"Desc, with comma",2030-05-05,2,1
+                """;
+        List<Map<Integer, TaskRequestDTO>> staged = new ArrayList<>();
+        Mockito.doAnswer(invocation -> staged.add(Map.copyOf(invocation.getArgument(0))))
+                .when(taskCopyRepository).copyToStaging(ArgumentMatchers.any());
+        Mockito.when(userService.findMissingUserIds(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            Set<Long> ids = invocation.getArgument(0);
+            return ids.contains(100L) ? Set.of(100L) : Set.of();
+        });
+
+        TaskImportResult result = taskCopyService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        Assertions.assertEquals(2, result.getImported());
+        Assertions.assertEquals(3, result.getRejected());
+        Assertions.assertEquals(List.of(2, 3, 4), result.getErrors().stream().map(TaskBatchResult::getIndex).toList());
+        Assertions.assertEquals("Пользователь с id 100 не найден", result.getErrors().get(0).getMessage());
+        Assertions.assertEquals("Введите название задачи", result.getErrors().get(1).getMessage());
+        Assertions.assertEquals(Set.of(1), staged.get(0).keySet());
+        Assertions.assertEquals("Desc, with comma", staged.get(1).get(5).getDescription());
+        Mockito.verify(taskCopyRepository).createStaging();
+    }
+
+    @Test
+    public void shouldReportDuplicates_WhenImportNdjson() {
+        String ndjson = """
+                {"title":"Task 1","description":"Desc for task 1","deadLine":"2030-05-05","author":1,"assignee":2}
+
+                {"title":"Task 1","description":"Desc for task 1","deadLine":"2030-05-05","author":1,"assignee":2}
+                {broken
+                """;
+        Mockito.doAnswer(invocation -> {
+            BiConsumer<Integer, String> onRejected = invocation.getArgument(0);
+            onRejected.accept(3, "Задача с названием Task 1 уже есть в файле");
+            return null;
+        }).when(taskCopyRepository).insertFromStaging(ArgumentMatchers.any());
+        Mockito.when(userService.findMissingUserIds(ArgumentMatchers.any())).thenReturn(Set.of());
+
+        TaskImportResult result = taskCopyService.importNdjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        Assertions.assertEquals(1, result.getImported());
+        Assertions.assertEquals(2, result.getRejected());
+        Assertions.assertEquals(List.of(4, 3), result.getErrors().stream().map(TaskBatchResult::getIndex).toList());
+        Assertions.assertEquals("Некорректный JSON в строке", result.getErrors().get(0).getMessage());
+    }
+}
@@ -0,0 +1,101 @@
+package ru.javajabka.taskservice;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.repository.TaskGraphRepository;
+import ru.javajabka.taskservice.repository.TaskServiceRepository;
+import ru.javajabka.taskservice.service.TaskGraphService;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskGraphServiceTest {
+
+    @Mock
+    private TaskGraphRepository taskGraphRepository;
+
+    @Mock
+    private TaskServiceRepository taskServiceRepository;
+
+    @InjectMocks
+    private TaskGraphService taskGraphService;
+
+    @Test
+    public void shouldRejectMove_WhenParentIsSubtask() {
+        Mockito.when(taskGraphRepository.isAncestorOf(1L, 3L)).thenReturn(true);
+
+        final BadRequestException badRequestException = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> taskGraphService.setParent(1L, 3L)
+        );
+
+        Assertions.assertEquals("Задачу 1 нельзя сделать подзадачей 3: получится цикл", badRequestException.getMessage());
+        Mockito.verify(taskGraphRepository).lockHierarchy();
+        Mockito.verify(taskGraphRepository, Mockito.never()).setParent(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void shouldDetachWithoutLock_WhenParentIsNull() {
+        Task task = Task.builder().id(1L).build();
+        Mockito.when(taskGraphRepository.setParent(1L, null)).thenReturn(task);
+
+        Assertions.assertEquals(task, taskGraphService.setParent(1L, null));
+        Mockito.verify(taskGraphRepository, Mockito.never()).lockHierarchy();
+        Mockito.verifyNoInteractions(taskServiceRepository);
+    }
+
+    @Test
+    public void shouldRejectDependency_WhenItClosesCycle() {
+        Mockito.when(taskGraphRepository.isBlockedBy(2L, 1L)).thenReturn(true);
+
+        final BadRequestException badRequestException = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> taskGraphService.addDependency(1L, 2L)
+        );
+
+        Assertions.assertEquals("Задача 2 уже ждёт задачу 1: получится цикл", badRequestException.getMessage());
+        Mockito.verify(taskGraphRepository).lockDependencies();
+        Mockito.verify(taskGraphRepository, Mockito.never()).addDependency(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void shouldRejectDependency_WhenTaskWaitsForItself() {
+        final BadRequestException badRequestException = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> taskGraphService.addDependency(1L, 1L)
+        );
+
+        Assertions.assertEquals("Задача не может зависеть от самой себя", badRequestException.getMessage());
+        Mockito.verifyNoInteractions(taskGraphRepository, taskServiceRepository);
+    }
+
+    @Test
+    public void shouldThrowNotFound_WhenSubtreeIsEmpty() {
+        Mockito.when(taskGraphRepository.getSubtree(1L, 1000)).thenReturn(List.of());
+
+        final BadRequestException badRequestException = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> taskGraphService.getSubtree(1L, null)
+        );
+
+        Assertions.assertEquals("Задача с id 1 не найдена", badRequestException.getMessage());
+    }
+
+    @Test
+    public void shouldRejectSubtree_WhenDepthOutOfRange() {
+        final BadRequestException badRequestException = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> taskGraphService.getSubtree(1L, 1001)
+        );
+
+        Assertions.assertEquals("Глубина должна быть от 1 до 1000", badRequestException.getMessage());
+        Mockito.verifyNoInteractions(taskGraphRepository);
+    }
+}
\ No newline at end of file
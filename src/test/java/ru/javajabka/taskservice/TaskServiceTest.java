@@ -7,18 +7,25 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.javajabka.taskservice.model.TaskBatchResult;
 import ru.javajabka.taskservice.model.TaskUpdateDTO;
 import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.exception.PreconditionFailedException;
 import ru.javajabka.taskservice.model.TaskRequestDTO;
 import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskField;
+import ru.javajabka.taskservice.model.TaskPage;
 import ru.javajabka.taskservice.model.TaskStatus;
 import ru.javajabka.taskservice.repository.TaskServiceRepository;
 import ru.javajabka.taskservice.service.TaskService;
 import ru.javajabka.taskservice.service.UserService;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @ExtendWith(MockitoExtension.class)
 public class TaskServiceTest {
@@ -34,7 +41,7 @@ public class TaskServiceTest {
 
     @Test
     public void shouldReturnTask_WhenCreateValid() {
-        TaskRequestDTO taskRequest = buildTaskRequest("Task 1", "Desc for task 1", LocalDate.of(2025, 5, 5), 1L, 2L);
+        TaskRequestDTO taskRequest = buildTaskRequest("Task 1", "Desc for task 1", LocalDate.now().plusDays(10), 1L, 2L);
         Task task = buildTaskResponse(
                 null,
                 taskRequest.getTitle(),
@@ -75,7 +82,7 @@ public class TaskServiceTest {
 
     @Test
     public void shouldReturnException_WhenUserNotFound() {
-        TaskRequestDTO taskRequest = buildTaskRequest("Task 1", "Desc for task 1", LocalDate.of(2025, 5, 5), 100L, 2L);
+        TaskRequestDTO taskRequest = buildTaskRequest("Task 1", "Desc for task 1", LocalDate.now().plusDays(10), 100L, 2L);
         Task task = buildTaskResponse(null, taskRequest.getTitle(), taskRequest.getDescription(), null, taskRequest.getDeadLine(), taskRequest.getAuthor(), taskRequest.getAssignee(), null, null);
         Mockito.when(taskServiceRepository.create(task)).thenThrow(new BadRequestException("Пользователь с id 100 не найден"));
         final BadRequestException badRequestException = Assertions.assertThrows(BadRequestException.class, () -> taskService.create(taskRequest));
@@ -83,6 +90,49 @@ public class TaskServiceTest {
         Mockito.verify(taskServiceRepository).create(task);
     }
 
+    @Test
+    public void shouldReturnResultPerTask_WhenCreateBatch() {
+        LocalDate deadLine = LocalDate.now().plusDays(10);
+        TaskRequestDTO valid = buildTaskRequest("Task 1", "Desc for task 1", deadLine, 1L, 2L);
+        TaskRequestDTO duplicate = buildTaskRequest("Task 1", "Desc for task 1", deadLine, 1L, 2L);
+        TaskRequestDTO unknownUser = buildTaskRequest("Task 2", "Desc for task 2", deadLine, 1L, 100L);
+        TaskRequestDTO existing = buildTaskRequest("Task 3", "Desc for task 3", deadLine, 2L, 2L);
+        Task task = buildTaskResponse(null, "Task 1", "Desc for task 1", null, deadLine, 1L, 2L, null, null);
+        Task existingTask = buildTaskResponse(null, "Task 3", "Desc for task 3", null, deadLine, 2L, 2L, null, null);
+
+        Mockito.when(userService.findMissingUserIds(Set.of(1L, 2L, 100L))).thenReturn(Set.of(100L));
+        Mockito.when(taskServiceRepository.createBatch(List.of(task, existingTask))).thenReturn(List.of(task));
+        List<TaskBatchResult> result = taskService.createBatch(List.of(valid, duplicate, unknownUser, existing));
+
+        Assertions.assertEquals(4, result.size());
+        Assertions.assertTrue(result.get(0).isSuccess());
+        Assertions.assertEquals(task, result.get(0).getTask());
+        Assertions.assertEquals("Задача с названием Task 1 уже есть в пакете", result.get(1).getMessage());
+        Assertions.assertEquals("Пользователь с id 100 не найден", result.get(2).getMessage());
+        Assertions.assertEquals("Задача с названием Task 3 уже существует", result.get(3).getMessage());
+        Mockito.verify(userService).findMissingUserIds(Set.of(1L, 2L, 100L));
+    }
+
+    @Test
+    public void shouldReturnResultPerTask_WhenUpdateBatch() {
+        TaskUpdateDTO renamed = buildTaskUpdateDTO(1L, "Task 1 renamed", null, null, null, null);
+        TaskUpdateDTO takenTitle = buildTaskUpdateDTO(2L, "Task 3", null, null, null, null);
+        TaskUpdateDTO notFound = buildTaskUpdateDTO(4L, null, null, TaskStatus.DONE, null, null);
+        Task renamedTask = Task.builder().id(1L).title("Task 1 renamed").build();
+        Task notFoundTask = Task.builder().id(4L).status(TaskStatus.DONE).build();
+
+        Mockito.when(userService.findMissingUserIds(Set.of())).thenReturn(Set.of());
+        Mockito.when(taskServiceRepository.getIdByTitles(Set.of("Task 1 renamed", "Task 3"))).thenReturn(Map.of("Task 3", 3L));
+        Mockito.when(taskServiceRepository.updateBatch(List.of(renamedTask, notFoundTask))).thenReturn(new int[]{1, 0});
+        Mockito.when(taskServiceRepository.getByIds(List.of(1L, 4L))).thenReturn(List.of(renamedTask));
+        List<TaskBatchResult> result = taskService.updateBatch(List.of(renamed, takenTitle, notFound));
+
+        Assertions.assertTrue(result.get(0).isSuccess());
+        Assertions.assertEquals(renamedTask, result.get(0).getTask());
+        Assertions.assertEquals("Задача с названием Task 3 уже существует", result.get(1).getMessage());
+        Assertions.assertEquals("Задача с id 4 не найдена", result.get(2).getMessage());
+    }
+
     @Test
     public void shouldReturnTaskResponse_WhenTaskGetById() {
         Task task = buildTaskResponse(
@@ -113,7 +163,7 @@ public class TaskServiceTest {
 
     @Test
     public void shouldReturnTaskResponse_WhenTaskUpdate() {
-        TaskUpdateDTO taskUpdateDTO = buildTaskUpdateDTO(1L, "Task 1", "Desc for task 1", TaskStatus.IN_PROGRESS, LocalDate.of(2025, 5, 5), 1L);
+        TaskUpdateDTO taskUpdateDTO = buildTaskUpdateDTO(1L, "Task 1", "Desc for task 1", TaskStatus.IN_PROGRESS, LocalDate.now().plusDays(10), 1L);
         Task task = Task.builder()
                 .id(taskUpdateDTO.getId())
                 .title(taskUpdateDTO.getTitle())
@@ -123,14 +173,37 @@ public class TaskServiceTest {
                 .assignee(taskUpdateDTO.getAssignee())
                 .build();
 
-        Mockito.when(taskServiceRepository.getById(taskUpdateDTO.getId())).thenReturn(task);
         Mockito.when(taskServiceRepository.update(task)).thenReturn(task);
-        Task result = taskService.update(taskUpdateDTO);
+        Task result = taskService.update(taskUpdateDTO, null);
         Assertions.assertEquals(task, result);
-        Mockito.verify(taskServiceRepository).getById(1L);
+        Mockito.verify(taskServiceRepository, Mockito.never()).getById(1L);
         Mockito.verify(taskServiceRepository).update(task);
     }
 
+    @Test
+    public void shouldPassExpectedVersion_WhenTaskUpdateWithVersion() {
+        TaskUpdateDTO taskUpdateDTO = buildTaskUpdateDTO(1L, null, null, TaskStatus.DONE, null, null);
+        Task task = Task.builder()
+                .id(1L)
+                .status(TaskStatus.DONE)
+                .version(3L)
+                .build();
+
+        Mockito.when(taskServiceRepository.update(task)).thenThrow(new PreconditionFailedException("Задача с id 1 была изменена, текущая версия 4"));
+        final PreconditionFailedException exception = Assertions.assertThrows(
+                PreconditionFailedException.class,
+                () -> taskService.update(taskUpdateDTO, 3L)
+        );
+        Assertions.assertEquals("Задача с id 1 была изменена, текущая версия 4", exception.getMessage());
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    public void shouldSetDeleteStatus_WhenTaskDelete() {
+        taskService.delete(1L, 3L);
+        Mockito.verify(taskServiceRepository).update(Task.builder().id(1L).status(TaskStatus.DELETE).version(3L).build());
+    }
+
     @Test
     public void shouldReturnListTasks_WhenTaskGetAll() {
         Task taskResponse_one = buildTaskResponse(
@@ -157,10 +230,74 @@ public class TaskServiceTest {
                 null
         );
 
-        Mockito.when(taskServiceRepository.getAll(Optional.of(TaskStatus.TO_DO), null)).thenReturn(List.of(taskResponse_one, taskResponse_two));
-        List<Task> result = taskService.getAll(Optional.of(TaskStatus.TO_DO), null);
-        Assertions.assertEquals(List.of(taskResponse_one, taskResponse_two), result);
-        Mockito.verify(taskServiceRepository).getAll(Optional.of(TaskStatus.TO_DO), null);
+        Mockito.when(taskServiceRepository.getAll(Optional.of(TaskStatus.TO_DO), Optional.empty(), null, 51)).thenReturn(List.of(taskResponse_one, taskResponse_two));
+        TaskPage result = taskService.getAll(Optional.of(TaskStatus.TO_DO), Optional.empty(), null, 50);
+        Assertions.assertEquals(List.of(taskResponse_one, taskResponse_two), result.getItems());
+        Assertions.assertNull(result.getNextCursor());
+        Mockito.verify(taskServiceRepository).getAll(Optional.of(TaskStatus.TO_DO), Optional.empty(), null, 51);
+    }
+
+    @Test
+    public void shouldReturnNextCursor_WhenTaskGetAllHasMorePages() {
+        Task taskResponse_one = buildTaskResponse(1L, "Task 1", "Desc for task 1", TaskStatus.TO_DO, LocalDate.of(2025, 5, 5), 1L, 1L, LocalDateTime.of(2025, 5, 3, 12, 30, 30), null);
+        Task taskResponse_two = buildTaskResponse(2L, "Task 2", "Desc for task 2", TaskStatus.TO_DO, LocalDate.of(2025, 5, 6), 1L, 1L, LocalDateTime.of(2025, 5, 3, 12, 30, 30), null);
+
+        Mockito.when(taskServiceRepository.getAll(Optional.empty(), Optional.empty(), null, 2)).thenReturn(List.of(taskResponse_one, taskResponse_two));
+        TaskPage firstPage = taskService.getAll(Optional.empty(), Optional.empty(), null, 1);
+        Assertions.assertEquals(List.of(taskResponse_one), firstPage.getItems());
+        Assertions.assertNotNull(firstPage.getNextCursor());
+
+        Mockito.when(taskServiceRepository.getAll(Optional.empty(), Optional.empty(), 1L, 2)).thenReturn(List.of(taskResponse_two));
+        TaskPage secondPage = taskService.getAll(Optional.empty(), Optional.empty(), firstPage.getNextCursor(), 1);
+        Assertions.assertEquals(List.of(taskResponse_two), secondPage.getItems());
+        Assertions.assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    public void shouldReadOnlyRequestedFields_WhenTaskGetAllWithFields() {
+        Task taskResponse_one = Task.builder().id(1L).title("Task 1").status(TaskStatus.TO_DO).assignee(1L).version(0L).build();
+        Set<TaskField> fields = EnumSet.of(TaskField.ID, TaskField.TITLE, TaskField.STATUS, TaskField.ASSIGNEE);
+
+        Mockito.when(taskServiceRepository.getAll(Optional.empty(), Optional.empty(), null, 51, fields)).thenReturn(List.of(taskResponse_one));
+        TaskPage result = taskService.getAll(Optional.empty(), Optional.empty(), null, 50, fields);
+        Assertions.assertEquals(List.of(taskResponse_one), result.getItems());
+        Mockito.verify(taskServiceRepository, Mockito.never()).getAll(Optional.empty(), Optional.empty(), null, 51);
+    }
+
+    @Test
+    public void shouldReturnException_WhenTaskGetAllCursorInvalid() {
+        final BadRequestException badRequestException = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> taskService.getAll(Optional.empty(), Optional.empty(), "not-a-cursor", 50)
+        );
+        Assertions.assertEquals("Некорректный курсор страницы", badRequestException.getMessage());
+    }
+
+    @Test
+    public void shouldPassRankAndIdFromCursor_WhenTaskSearchHasMorePages() {
+        Task taskResponse_one = buildTaskResponse(3L, "Ремонт крыши", "Desc for task 3", TaskStatus.TO_DO, LocalDate.of(2025, 5, 5), 1L, 1L, LocalDateTime.of(2025, 5, 3, 12, 30, 30), null);
+        Task taskResponse_two = buildTaskResponse(1L, "Ремонт окна", "Desc for task 1", TaskStatus.TO_DO, LocalDate.of(2025, 5, 6), 1L, 1L, LocalDateTime.of(2025, 5, 3, 12, 30, 30), null);
+        taskResponse_one.setRank(0.75f);
+        taskResponse_two.setRank(0.5f);
+
+        Mockito.when(taskServiceRepository.search("ремонт", Optional.empty(), Optional.empty(), null, null, 2)).thenReturn(List.of(taskResponse_one, taskResponse_two));
+        TaskPage firstPage = taskService.search(" ремонт ", Optional.empty(), Optional.empty(), null, 1);
+        Assertions.assertEquals(List.of(taskResponse_one), firstPage.getItems());
+        Assertions.assertNotNull(firstPage.getNextCursor());
+
+        Mockito.when(taskServiceRepository.search("ремонт", Optional.empty(), Optional.empty(), 0.75f, 3L, 2)).thenReturn(List.of(taskResponse_two));
+        TaskPage secondPage = taskService.search("ремонт", Optional.empty(), Optional.empty(), firstPage.getNextCursor(), 1);
+        Assertions.assertEquals(List.of(taskResponse_two), secondPage.getItems());
+        Assertions.assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    public void shouldReturnException_WhenTaskSearchQueryTooLong() {
+        final BadRequestException badRequestException = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> taskService.search("a".repeat(201), Optional.empty(), Optional.empty(), null, 50)
+        );
+        Assertions.assertEquals("Поисковый запрос должен быть не длиннее 200 символов", badRequestException.getMessage());
     }
 
     private TaskRequestDTO buildTaskRequest(String title, String description, LocalDate deadLine, Long author, Long assignee) {
@@ -0,0 +1,207 @@
+package ru.javajabka.taskservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.javajabka.taskservice.configuration.RestTemplateConfiguration;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.exception.RestTemplateResponseErrorHandler;
+import ru.javajabka.taskservice.exception.ServiceUnavailableException;
+import ru.javajabka.taskservice.service.UserService;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Запросы уходят в настоящий HTTP-сервер через тот же пул соединений и таймауты, что и в приложении.
+ */
+public class UserServiceTest {
+
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(500);
+
+    private final Set<Long> knownUserIds = Set.of(1L, 2L, 3L);
+    private final Queue<String> requests = new ConcurrentLinkedQueue<>();
+    private final Queue<Integer> clientPorts = new ConcurrentLinkedQueue<>();
+
+    private volatile int responseStatus = HttpStatus.OK.value();
+    private volatile Duration responseDelay = Duration.ZERO;
+
+    private HttpServer userServer;
+    private ExecutorService userServerExecutor;
+    private CloseableHttpClient httpClient;
+    private Cache<Long, Boolean> userIdCache;
+    private CircuitBreaker circuitBreaker;
+    private UserService userService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        userServerExecutor = Executors.newCachedThreadPool();
+        userServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        userServer.createContext("/api/v1/user", this::handle);
+        userServer.setExecutor(userServerExecutor);
+        userServer.start();
+
+        RestTemplateConfiguration configuration = new RestTemplateConfiguration();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        httpClient = configuration.userServiceHttpClient(4, Duration.ofSeconds(1), READ_TIMEOUT, Duration.ofSeconds(30), meterRegistry);
+        userIdCache = Caffeine.newBuilder().maximumSize(100).recordStats().build();
+        circuitBreaker = CircuitBreaker.ofDefaults("userService");
+        userService = new UserService(
+                configuration.restTemplate(new RestTemplateResponseErrorHandler(new ObjectMapper()), httpClient, Duration.ofSeconds(1)),
+                userIdCache, circuitBreaker, Bulkhead.ofDefaults("userService"), new SimpleAsyncTaskExecutor(), meterRegistry);
+        ReflectionTestUtils.setField(userService, "userServiceUrl", "http://localhost:" + userServer.getAddress().getPort() + "/");
+        ReflectionTestUtils.setField(userService, "lookupChunkSize", 2);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        httpClient.close();
+        userServer.stop(0);
+        userServerExecutor.shutdownNow();
+    }
+
+    @Test
+    public void shouldRequestUsersOnce_WhenCheckSameUsersTwice() {
+        userService.checkUserId(List.of(1L, 2L));
+        userService.checkUserId(List.of(2L, 1L));
+
+        Assertions.assertEquals(List.of("ids=1&ids=2"), List.copyOf(requests));
+        Assertions.assertEquals(2, userIdCache.stats().hitCount());
+        Assertions.assertEquals(2, userIdCache.stats().missCount());
+    }
+
+    @Test
+    public void shouldRequestOnlyUnknownUsers_WhenSomeUsersCached() {
+        userIdCache.put(1L, true);
+
+        userService.checkUserId(List.of(1L, 2L, 2L));
+
+        Assertions.assertEquals(List.of("ids=2"), List.copyOf(requests));
+    }
+
+    @Test
+    public void shouldReturnException_WhenUserNotFoundFromCache() {
+        final BadRequestException first = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> userService.checkUserId(List.of(1L, 100L))
+        );
+        final BadRequestException second = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> userService.checkUserId(List.of(100L))
+        );
+
+        Assertions.assertEquals(List.of("ids=1&ids=100"), List.copyOf(requests));
+        Assertions.assertEquals("Пользователь с id 100 не найден", first.getMessage());
+        Assertions.assertEquals("Пользователь с id 100 не найден", second.getMessage());
+    }
+
+    @Test
+    public void shouldRequestUsersInChunks_WhenManyUsersUnknown() {
+        Assertions.assertEquals(Set.of(), userService.findMissingUserIds(List.of(1L, 2L, 3L)));
+
+        Assertions.assertEquals(Set.of("ids=1&ids=2", "ids=3"), Set.copyOf(requests));
+    }
+
+    @Test
+    public void shouldReuseConnection_WhenRequestsSequential() {
+        userService.checkUserId(List.of(1L));
+        userService.checkUserId(List.of(2L));
+        userService.checkUserId(List.of(3L));
+
+        Assertions.assertEquals(3, requests.size());
+        Assertions.assertEquals(1, Set.copyOf(clientPorts).size());
+    }
+
+    @Test
+    public void shouldReturnException_WhenUserServiceSlowerThanReadTimeout() {
+        responseDelay = READ_TIMEOUT.multipliedBy(3);
+
+        final ServiceUnavailableException exception = Assertions.assertThrows(
+                ServiceUnavailableException.class,
+                () -> userService.checkUserId(List.of(1L))
+        );
+
+        Assertions.assertEquals("Сервис пользователей недоступен, повторите запрос позже", exception.getMessage());
+        Assertions.assertNull(userIdCache.getIfPresent(1L));
+    }
+
+    @Test
+    public void shouldReturnException_WhenUserServiceFails() {
+        responseStatus = HttpStatus.INTERNAL_SERVER_ERROR.value();
+
+        final ServiceUnavailableException exception = Assertions.assertThrows(
+                ServiceUnavailableException.class,
+                () -> userService.checkUserId(List.of(1L))
+        );
+
+        Assertions.assertEquals(List.of("ids=1"), List.copyOf(requests));
+        Assertions.assertEquals("Сервис пользователей недоступен, повторите запрос позже", exception.getMessage());
+        Assertions.assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        Assertions.assertNull(userIdCache.getIfPresent(1L));
+    }
+
+    @Test
+    public void shouldReturnException_WhenCircuitBreakerOpen() {
+        circuitBreaker.transitionToOpenState();
+
+        final ServiceUnavailableException exception = Assertions.assertThrows(
+                ServiceUnavailableException.class,
+                () -> userService.checkUserId(List.of(1L))
+        );
+
+        Assertions.assertTrue(requests.isEmpty());
+        Assertions.assertEquals("Сервис пользователей недоступен, повторите запрос позже", exception.getMessage());
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        requests.add(query);
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+
+        try {
+            Thread.sleep(responseDelay.toMillis());
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        }
+
+        byte[] body = (responseStatus == HttpStatus.OK.value() ? users(query) : "").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        exchange.sendResponseHeaders(responseStatus, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String users(final String query) {
+        return Arrays.stream(query.split("&"))
+                .map(param -> Long.parseLong(param.substring("ids=".length())))
+                .filter(knownUserIds::contains)
+                .map(id -> String.format("{\"id\":%d,\"userName\":\"user%d\"}", id, id))
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+}
@@ -0,0 +1,35 @@
+package ru.javajabka.taskservice.configuration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskEvent;
+import ru.javajabka.taskservice.model.TaskRequestDTO;
+import java.lang.reflect.Constructor;
+
+class TaskRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void registersBuilderConstructorsUsedByJackson() {
+        new TaskRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        for (Class<?> model : new Class<?>[]{Task.class, TaskRequestDTO.class, TaskEvent.class}) {
+            for (Constructor<?> constructor : model.getDeclaredConstructors()) {
+                Assertions.assertTrue(RuntimeHintsPredicates.reflection().onConstructor(constructor).invoke().test(hints),
+                        constructor.toString());
+            }
+        }
+    }
+
+    @Test
+    void registersTaskAccessorsAndFieldsMixIn() throws NoSuchMethodException {
+        new TaskRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection().onMethod(Task.class.getMethod("getDeadLine")).invoke().test(hints));
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(JacksonConfiguration.TaskFieldsMixIn.class).test(hints));
+    }
+}
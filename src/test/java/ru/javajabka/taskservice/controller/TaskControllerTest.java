@@ -0,0 +1,114 @@
+package ru.javajabka.taskservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import ru.javajabka.taskservice.exception.PreconditionFailedException;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskField;
+import ru.javajabka.taskservice.model.TaskPage;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.service.IdempotencyService;
+import ru.javajabka.taskservice.service.TaskChangeFeed;
+import ru.javajabka.taskservice.service.TaskCopyService;
+import ru.javajabka.taskservice.service.TaskGraphService;
+import ru.javajabka.taskservice.service.TaskService;
+import java.util.List;
+import java.util.Optional;
+
+@WebMvcTest(TaskController.class)
+public class TaskControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TaskService taskService;
+
+    @MockitoBean
+    private TaskChangeFeed taskChangeFeed;
+
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
+    @MockitoBean
+    private TaskCopyService taskCopyService;
+
+    @MockitoBean
+    private TaskGraphService taskGraphService;
+
+    @Test
+    public void shouldReturnNotModified_WhenIfNoneMatchHasCurrentVersion() throws Exception {
+        Mockito.when(taskService.getVersion(42L)).thenReturn(3L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/task/42").header(HttpHeaders.IF_NONE_MATCH, "W/\"42-3\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"42-3\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        Mockito.verify(taskService, Mockito.never()).getById(ArgumentMatchers.anyLong(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void shouldReturnTask_WhenIfNoneMatchHasOldVersion() throws Exception {
+        Mockito.when(taskService.getVersion(42L)).thenReturn(4L);
+        Mockito.when(taskService.getById(42L, TaskField.ALL)).thenReturn(Task.builder()
+                .id(42L)
+                .title("Task 42")
+                .status(TaskStatus.TO_DO)
+                .version(4L)
+                .build());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/task/42").header(HttpHeaders.IF_NONE_MATCH, "W/\"42-3\""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "W/\"42-4\""))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.title").value("Task 42"));
+    }
+
+    @Test
+    public void shouldReturnNotModified_WhenSearchIfNoneMatchHasCurrentPage() throws Exception {
+        TaskPage versions = TaskPage.builder().items(List.of(Task.builder().id(42L).version(3L).build())).build();
+        Mockito.when(taskService.searchVersions("report", Optional.empty(), Optional.empty(), null, 50)).thenReturn(versions);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/task").param("q", "report").header(HttpHeaders.IF_NONE_MATCH, TaskETag.of(versions)))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        Mockito.verify(taskService, Mockito.never())
+                .search(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyInt(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void shouldReturnPreconditionFailed_WhenIfMatchHasOldVersion() throws Exception {
+        Mockito.when(taskService.update(ArgumentMatchers.any(), ArgumentMatchers.eq(3L)))
+                .thenThrow(new PreconditionFailedException("Задача с id 42 была изменена, текущая версия 4"));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/task")
+                        .header(HttpHeaders.IF_MATCH, "W/\"42-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":42,\"title\":\"Task 42\"}"))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Задача с id 42 была изменена, текущая версия 4"));
+    }
+
+    @Test
+    public void shouldReturnPreconditionFailed_WhenIfMatchNamesOtherTask() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/task/42").header(HttpHeaders.IF_MATCH, "\"7-3\""))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+        Mockito.verifyNoInteractions(taskService);
+    }
+
+    @Test
+    public void shouldReturnBadRequest_WhenIfMatchMalformed() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/task/42").header(HttpHeaders.IF_MATCH, "\"42-x\""))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        Mockito.verifyNoInteractions(taskService);
+    }
+}
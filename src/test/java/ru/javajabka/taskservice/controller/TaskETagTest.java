@@ -0,0 +1,70 @@
+package ru.javajabka.taskservice.controller;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.exception.PreconditionFailedException;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskPage;
+import java.util.List;
+
+public class TaskETagTest {
+
+    @Test
+    public void shouldBuildWeakETag_WhenTask() {
+        Assertions.assertEquals("W/\"42-3\"", TaskETag.of(Task.builder().id(42L).version(3L).build()));
+    }
+
+    @Test
+    public void shouldReturnVersion_WhenIfMatchStrongOrWeak() {
+        Assertions.assertEquals(3L, TaskETag.parseVersion("\"42-3\"", 42L));
+        Assertions.assertEquals(3L, TaskETag.parseVersion(" W/\"42-3\" ", 42L));
+        Assertions.assertEquals(3L, TaskETag.parseVersion(TaskETag.of(42L, 3L), 42L));
+    }
+
+    @Test
+    public void shouldSkipVersionCheck_WhenIfMatchMissingOrAny() {
+        Assertions.assertNull(TaskETag.parseVersion(null, 42L));
+        Assertions.assertNull(TaskETag.parseVersion(" ", 42L));
+        Assertions.assertNull(TaskETag.parseVersion("*", 42L));
+    }
+
+    @Test
+    public void shouldThrowPreconditionFailed_WhenIfMatchNamesOtherTask() {
+        final PreconditionFailedException preconditionFailedException = Assertions.assertThrows(
+                PreconditionFailedException.class,
+                () -> TaskETag.parseVersion("\"7-3\"", 42L)
+        );
+
+        Assertions.assertEquals("ETag \"7-3\" не относится к задаче с id 42", preconditionFailedException.getMessage());
+        Assertions.assertThrows(PreconditionFailedException.class, () -> TaskETag.parseVersion("\"42\"", 42L));
+    }
+
+    @Test
+    public void shouldThrowBadRequest_WhenIfMatchMalformed() {
+        final BadRequestException badRequestException = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> TaskETag.parseVersion("\"42-abc\"", 42L)
+        );
+
+        Assertions.assertEquals("Некорректный ETag \"42-abc\"", badRequestException.getMessage());
+        Assertions.assertThrows(BadRequestException.class, () -> TaskETag.parseVersion("\"abc-3\"", 42L));
+    }
+
+    @Test
+    public void shouldChangePageETag_WhenVersionOrCursorChanges() {
+        TaskPage page = page(3L, null);
+
+        Assertions.assertTrue(TaskETag.of(page).startsWith("W/\"page-"));
+        Assertions.assertEquals(TaskETag.of(page), TaskETag.of(page(3L, null)));
+        Assertions.assertNotEquals(TaskETag.of(page), TaskETag.of(page(4L, null)));
+        Assertions.assertNotEquals(TaskETag.of(page), TaskETag.of(page(3L, "next")));
+    }
+
+    private static TaskPage page(final Long version, final String nextCursor) {
+        return TaskPage.builder()
+                .items(List.of(Task.builder().id(1L).version(0L).build(), Task.builder().id(2L).version(version).build()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
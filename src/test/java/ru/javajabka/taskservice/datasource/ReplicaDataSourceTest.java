@@ -0,0 +1,197 @@
+package ru.javajabka.taskservice.datasource;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.repository.PgNotificationListener;
+import ru.javajabka.taskservice.repository.TaskCache;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replicaOne;
+
+    @Mock
+    private DataSource replicaTwo;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaOneConnection;
+
+    @Mock
+    private Connection replicaTwoConnection;
+
+    private ReplicaDataSource replicaDataSource;
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replicaOne);
+        replicas.put("replica-1", replicaTwo);
+        replicaDataSource = new ReplicaDataSource(primary, replicas, 1024, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void shouldAlternateReplicas_WhenReplicasHealthy() throws SQLException {
+        Mockito.when(replicaOne.getConnection()).thenReturn(replicaOneConnection);
+        Mockito.when(replicaTwo.getConnection()).thenReturn(replicaTwoConnection);
+
+        Assertions.assertSame(replicaOneConnection, replicaDataSource.getConnection());
+        Assertions.assertSame(replicaTwoConnection, replicaDataSource.getConnection());
+        Assertions.assertSame(replicaOneConnection, replicaDataSource.getConnection());
+        Mockito.verifyNoInteractions(primary);
+    }
+
+    @Test
+    public void shouldSkipReplica_WhenReplicaUnavailable() throws SQLException {
+        Mockito.when(replicaOne.getConnection()).thenThrow(new SQLException("Connection refused"));
+        Mockito.when(replicaTwo.getConnection()).thenReturn(replicaTwoConnection);
+
+        Assertions.assertSame(replicaTwoConnection, replicaDataSource.getConnection());
+        Assertions.assertSame(replicaTwoConnection, replicaDataSource.getConnection());
+        Mockito.verify(replicaOne, Mockito.times(1)).getConnection();
+    }
+
+    @Test
+    public void shouldUsePrimary_WhenAllReplicasUnavailable() throws SQLException {
+        Mockito.when(replicaOne.getConnection()).thenThrow(new SQLException("Connection refused"));
+        Mockito.when(replicaTwo.getConnection()).thenThrow(new SQLException("Connection refused"));
+        Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+
+        Assertions.assertSame(primaryConnection, replicaDataSource.getConnection());
+    }
+
+    @Test
+    public void shouldPassCredentials_WhenConnectionRequestedWithCredentials() throws SQLException {
+        Mockito.when(replicaOne.getConnection("reader", "secret")).thenReturn(replicaOneConnection);
+
+        Assertions.assertSame(replicaOneConnection, replicaDataSource.getConnection("reader", "secret"));
+    }
+
+    @Test
+    public void shouldSkipReplica_WhenReplicaBehindSessionWrite() throws SQLException {
+        Connection primaryLsn = returning("0/1800");
+        Connection replicaOneLsn = returning("0/1500");
+        Connection replicaTwoLsn = returning("0/1800");
+        Mockito.when(primary.getConnection()).thenReturn(primaryLsn);
+        Mockito.when(replicaOne.getConnection()).thenReturn(replicaOneLsn);
+        Mockito.when(replicaTwo.getConnection()).thenReturn(replicaTwoLsn, replicaTwoConnection, replicaTwoConnection);
+        replicaDataSource.checkHealth();
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReadYourWrites.COOKIE, "0/1700"));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Assertions.assertSame(replicaTwoConnection, replicaDataSource.getConnection());
+        Assertions.assertSame(replicaTwoConnection, replicaDataSource.getConnection());
+        Mockito.verify(replicaOne, Mockito.times(1)).getConnection();
+    }
+
+    @Test
+    public void shouldUsePrimary_WhenNoReplicaCaughtUpWithSessionWrite() throws SQLException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReadYourWrites.COOKIE, "0/1700"));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+
+        Assertions.assertSame(primaryConnection, replicaDataSource.getConnection());
+        Mockito.verifyNoInteractions(replicaOne, replicaTwo);
+    }
+
+    @Test
+    public void shouldSetSessionCookie_WhenWriteCommitted() throws SQLException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+        ReadYourWrites readYourWrites = new ReadYourWrites(Optional.of(replicaDataSource));
+        Connection primaryLsn = returning("16/B374D848");
+        Mockito.when(primary.getConnection()).thenReturn(primaryLsn);
+        TransactionSynchronizationManager.initSynchronization();
+
+        readYourWrites.written();
+        Assertions.assertNull(response.getCookie(ReadYourWrites.COOKIE));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        Assertions.assertEquals("16/B374D848", response.getCookie(ReadYourWrites.COOKIE).getValue());
+        Assertions.assertEquals(0x16B374D848L, ReadYourWrites.sessionLsn());
+    }
+
+    @Test
+    public void shouldUsePrimary_WhenTaskCacheLoadsTask() throws SQLException {
+        Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+        Mockito.when(replicaOne.getConnection()).thenReturn(replicaOneConnection);
+        ReadYourWrites readYourWrites = new ReadYourWrites(Optional.empty());
+        PgNotificationListener pgNotificationListener = Mockito.mock(PgNotificationListener.class);
+        TaskCache cached = new TaskCache(Optional.of(Caffeine.newBuilder().build()), pgNotificationListener, readYourWrites);
+        TaskCache uncached = new TaskCache(Optional.empty(), pgNotificationListener, readYourWrites);
+        List<Connection> connections = new ArrayList<>();
+
+        cached.get(1L, id -> load(id, connections));
+        uncached.get(2L, id -> load(id, connections));
+
+        Assertions.assertEquals(List.of(primaryConnection, replicaOneConnection), connections);
+    }
+
+    private Task load(final Long id, final List<Connection> connections) {
+        try {
+            connections.add(replicaDataSource.getConnection());
+        } catch (SQLException exc) {
+            throw new IllegalStateException(exc);
+        }
+        return Task.builder().id(id).status(TaskStatus.TO_DO).build();
+    }
+
+    /**
+     * Соединение, на котором любой запрос возвращает одну строку со значением value.
+     */
+    private static Connection returning(final String value) throws SQLException {
+        Connection connection = Mockito.mock(Connection.class);
+        Statement statement = Mockito.mock(Statement.class);
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(connection.createStatement()).thenReturn(statement);
+        Mockito.when(statement.executeQuery(ArgumentMatchers.anyString())).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true, false);
+        Mockito.when(resultSet.getString(1)).thenReturn(value);
+        return connection;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.javajabka.taskservice.job;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.repository.TaskServiceRepository;
+import java.util.Collections;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskOverdueJobTest {
+
+    @Mock
+    private TaskServiceRepository taskServiceRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TaskOverdueJob taskOverdueJob;
+
+    @BeforeEach
+    public void setUp() {
+        taskOverdueJob = new TaskOverdueJob(taskServiceRepository, meterRegistry);
+        ReflectionTestUtils.setField(taskOverdueJob, "batchSize", 2);
+    }
+
+    @Test
+    public void shouldTakeBatches_UntilBatchNotFull() {
+        Mockito.when(taskServiceRepository.flagOverdue(2)).thenReturn(tasks(2), tasks(2), tasks(1));
+
+        taskOverdueJob.flagOverdue();
+
+        Mockito.verify(taskServiceRepository, Mockito.times(3)).flagOverdue(2);
+        Assertions.assertEquals(5, meterRegistry.counter("task.overdue.flagged").count());
+    }
+
+    @Test
+    public void shouldStopAfterOneQuery_WhenNothingOverdue() {
+        Mockito.when(taskServiceRepository.flagOverdue(2)).thenReturn(List.of());
+
+        taskOverdueJob.flagOverdue();
+
+        Mockito.verify(taskServiceRepository, Mockito.times(1)).flagOverdue(2);
+        Assertions.assertEquals(0, meterRegistry.counter("task.overdue.flagged").count());
+    }
+
+    private static List<Task> tasks(final int count) {
+        return Collections.nCopies(count, Task.builder().build());
+    }
+}
@@ -0,0 +1,65 @@
+package ru.javajabka.taskservice.outbox;
+
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import org.springframework.test.web.client.response.MockRestResponseCreators;
+import org.springframework.web.client.HttpServerErrorException;
+import ru.javajabka.taskservice.model.TaskEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+public class WebhookTaskEventSinkTest {
+
+    private static final String URL = "http://localhost:8083/api/v1/task-events";
+
+    private MockRestServiceServer webhookServer;
+    private WebhookTaskEventSink webhookTaskEventSink;
+
+    @BeforeEach
+    public void setUp() {
+        MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+        webhookTaskEventSink = new WebhookTaskEventSink(new RestTemplateBuilder(customizer), HttpClients.createDefault(), URL, Duration.ofSeconds(1));
+        webhookServer = customizer.getServer();
+    }
+
+    @Test
+    public void shouldPostEventsAsJsonArray_WhenPublish() {
+        webhookServer.expect(MockRestRequestMatchers.requestTo(URL))
+                .andExpect(MockRestRequestMatchers.method(HttpMethod.POST))
+                .andExpect(MockRestRequestMatchers.jsonPath("$[0].id").value(7))
+                .andExpect(MockRestRequestMatchers.jsonPath("$[0].type").value("TASK_STATUS_CHANGED"))
+                .andExpect(MockRestRequestMatchers.jsonPath("$[0].payload.previousStatus").value("TO_DO"))
+                .andRespond(MockRestResponseCreators.withSuccess("", MediaType.APPLICATION_JSON));
+
+        webhookTaskEventSink.publish(List.of(buildTaskEvent()));
+        webhookServer.verify();
+    }
+
+    @Test
+    public void shouldReturnException_WhenWebhookFails() {
+        webhookServer.expect(MockRestRequestMatchers.requestTo(URL))
+                .andRespond(MockRestResponseCreators.withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        Assertions.assertThrows(HttpServerErrorException.class, () -> webhookTaskEventSink.publish(List.of(buildTaskEvent())));
+    }
+
+    private TaskEvent buildTaskEvent() {
+        return TaskEvent.builder()
+                .id(7L)
+                .type("TASK_STATUS_CHANGED")
+                .taskId(1L)
+                .createdAt(Instant.parse("2026-10-18T09:00:00Z"))
+                .payload("{\"previousStatus\": \"TO_DO\", \"task\": {\"id\": 1, \"status\": \"IN_PROGRESS\"}}")
+                .build();
+    }
+}
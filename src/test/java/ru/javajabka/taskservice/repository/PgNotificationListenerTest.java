@@ -0,0 +1,67 @@
+package ru.javajabka.taskservice.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import javax.sql.DataSource;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PgNotificationListenerTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    private PgNotificationListener pgNotificationListener;
+
+    @AfterEach
+    public void tearDown() {
+        pgNotificationListener.stop();
+    }
+
+    @Test
+    public void shouldDeliverTaskId_WhenTaskUpdated() throws InterruptedException {
+        BlockingQueue<String> ids = new LinkedBlockingQueue<>();
+        pgNotificationListener = new PgNotificationListener(dataSource);
+        pgNotificationListener.subscribe("task_changed", ids::add, () -> { });
+        pgNotificationListener.start();
+        awaitListening();
+
+        long id = insertTask(task("Notify 1"));
+        jdbcTemplate.getJdbcTemplate().update("UPDATE task_service.task SET status = 'IN_PROGRESS' WHERE id = ?", id);
+
+        Assertions.assertEquals(String.valueOf(id), ids.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldCallOnReconnect_WhenConnectionLost() throws InterruptedException {
+        CountDownLatch reconnected = new CountDownLatch(1);
+        pgNotificationListener = new PgNotificationListener(dataSource);
+        pgNotificationListener.subscribe("task_changed", id -> { }, reconnected::countDown);
+        pgNotificationListener.start();
+        awaitListening();
+
+        jdbcTemplate.getJdbcTemplate().queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE query LIKE 'LISTEN %'");
+
+        Assertions.assertTrue(reconnected.await(20, TimeUnit.SECONDS));
+        awaitListening();
+    }
+
+    private void awaitListening() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Integer listeners = jdbcTemplate.getJdbcTemplate().queryForObject(
+                    "SELECT count(*) FROM pg_stat_activity WHERE query LIKE 'LISTEN %' AND state = 'idle'", Integer.class);
+            if (listeners != null && listeners > 0) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        Assertions.fail("Слушатель не подключился");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package ru.javajabka.taskservice.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskStatus;
+import java.sql.Types;
+import java.time.LocalDate;
+
+/**
+ * Тесты репозиториев на настоящем PostgreSQL с миграциями Liquibase.
+ * Один контейнер на все тестовые классы: Spring Boot запускает его при первом подключении,
+ * а останавливается он вместе с JVM. Поле без @Container, иначе контейнер перезапускался бы для каждого класса.
+ * Spring кэширует контекст каждой конфигурации тестов вместе с его пулом соединений, поэтому пулы маленькие.
+ * Без Docker тесты пропускаются. Тест в транзакции откатывается, данные теста без транзакции
+ * (Propagation.NOT_SUPPORTED) удаляются после него.
+ */
+@JdbcTest
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.hikari.maximum-pool-size=4")
+public abstract class PostgresRepositoryTest {
+
+    @ServiceConnection
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withCommand("postgres", "-c", "max_connections=200");
+
+    private static final String INSERT_TASKS = """
+            INSERT INTO task_service.task (title, description, status, dead_line, author, assignee, parent_id, created_at)
+            SELECT :title || ' ' || g, :description || ' ' || g, :status, :deadLine, :author, :assignee + g % :assignees, :parentId, now()
+            FROM generate_series(1, :count) g
+            """;
+
+    @Autowired
+    protected NamedParameterJdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void deleteCommitted() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            jdbcTemplate.getJdbcTemplate().execute("""
+                    TRUNCATE task_service.task, task_service.task_archive, task_service.task_dependency, task_service.task_counter,
+                             task_service.task_change, task_service.task_outbox, task_service.idempotency_key
+                    """);
+        }
+    }
+
+    /**
+     * Задача по умолчанию: TO_DO, дедлайн завтра, автор и ответственный - пользователь 1.
+     */
+    protected static Task.TaskBuilder task(final String title) {
+        return Task.builder()
+                .title(title)
+                .description("Desc for " + title)
+                .status(TaskStatus.TO_DO)
+                .deadLine(LocalDate.now().plusDays(1))
+                .author(1L)
+                .assignee(1L);
+    }
+
+    protected long insertTask(final Task.TaskBuilder task) {
+        Task built = task.build();
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO task_service.task (title, description, status, dead_line, author, assignee, parent_id, created_at)
+                VALUES (:title, :description, :status, :deadLine, :author, :assignee, :parentId, now())
+                RETURNING id
+                """, taskToSql(built), Long.class);
+    }
+
+    /**
+     * Вставляет count задач одним запросом: к названию и описанию добавляется номер задачи от 1 до count.
+     */
+    protected void insertTasks(final Task.TaskBuilder task, final int count) {
+        insertTasks(task, count, 1);
+    }
+
+    /**
+     * То же, но ответственные перебираются по кругу: от assignee задачи до assignee + assignees - 1.
+     */
+    protected void insertTasks(final Task.TaskBuilder task, final int count, final int assignees) {
+        jdbcTemplate.update(INSERT_TASKS, taskToSql(task.build()).addValue("count", count).addValue("assignees", assignees));
+    }
+
+    private static MapSqlParameterSource taskToSql(final Task task) {
+        return new MapSqlParameterSource()
+                .addValue("title", task.getTitle())
+                .addValue("description", task.getDescription())
+                .addValue("status", task.getStatus().toString())
+                .addValue("deadLine", task.getDeadLine(), Types.DATE)
+                .addValue("author", task.getAuthor())
+                .addValue("assignee", task.getAssignee())
+                .addValue("parentId", task.getParentId(), Types.BIGINT);
+    }
+}
@@ -0,0 +1,236 @@
+package ru.javajabka.taskservice.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.exception.PreconditionFailedException;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskPage;
+import ru.javajabka.taskservice.model.TaskRequestDTO;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.model.TaskUpdateDTO;
+import ru.javajabka.taskservice.repository.mapper.ReactiveTaskMapper;
+import ru.javajabka.taskservice.service.ReactiveTaskService;
+import ru.javajabka.taskservice.service.ReactiveUserService;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Сценарии TaskServiceTest для реактивного профиля на настоящей базе через R2DBC.
+ * R2DBC работает на своих соединениях и не видит транзакцию теста, поэтому тесты выполняются без неё.
+ */
+@Import(ReactiveTaskRepositoryTest.R2dbcConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReactiveTaskRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @MockitoBean
+    private ReactiveUserService reactiveUserService;
+
+    private ReactiveTaskService reactiveTaskService;
+
+    @BeforeEach
+    public void setUp() {
+        Mockito.when(reactiveUserService.checkUserId(ArgumentMatchers.any())).thenReturn(Mono.empty());
+        reactiveTaskService = new ReactiveTaskService(reactiveUserService, new ReactiveTaskRepository(databaseClient, new ReactiveTaskMapper()));
+    }
+
+    @Test
+    public void shouldReturnTask_WhenCreateValid() {
+        LocalDate deadLine = LocalDate.now().plusDays(10);
+        TaskRequestDTO taskRequest = TaskRequestDTO.builder().title("Task 1").description("Desc for task 1").deadLine(deadLine).author(1L).assignee(2L).build();
+
+        StepVerifier.create(reactiveTaskService.create(taskRequest))
+                .assertNext(task -> {
+                    Assertions.assertNotNull(task.getId());
+                    Assertions.assertEquals("Task 1", task.getTitle());
+                    Assertions.assertEquals(TaskStatus.TO_DO, task.getStatus());
+                    Assertions.assertEquals(deadLine, task.getDeadLine());
+                    Assertions.assertEquals(2L, task.getAssignee());
+                    Assertions.assertEquals(0L, task.getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldReturnException_WhenCreateTitleExists() {
+        insertTask(task("Task 1"));
+        TaskRequestDTO taskRequest = TaskRequestDTO.builder().title("Task 1").description("Desc for task 1").deadLine(LocalDate.now().plusDays(10)).author(1L).assignee(2L).build();
+
+        StepVerifier.create(reactiveTaskService.create(taskRequest))
+                .expectErrorMatches(exc -> exc instanceof BadRequestException && "Задача с названием Task 1 уже существует".equals(exc.getMessage()))
+                .verify();
+    }
+
+    @Test
+    public void shouldReturnException_WhenCreateParentDeleted() {
+        long parentId = insertTask(task("Parent"));
+        reactiveTaskService.delete(parentId, null).block();
+        TaskRequestDTO taskRequest = TaskRequestDTO.builder().title("Child").description("Desc for child").deadLine(LocalDate.now().plusDays(10)).author(1L).assignee(2L).parentId(parentId).build();
+
+        StepVerifier.create(reactiveTaskService.create(taskRequest))
+                .expectErrorMatches(exc -> exc instanceof BadRequestException
+                        && String.format("Задача с id %d не найдена", parentId).equals(exc.getMessage()))
+                .verify();
+        Assertions.assertEquals(1, count());
+    }
+
+    @Test
+    public void shouldReturnTask_WhenTaskGetById() {
+        long id = insertTask(task("Task 1"));
+
+        StepVerifier.create(reactiveTaskService.getById(id))
+                .assertNext(task -> {
+                    Assertions.assertEquals(id, task.getId());
+                    Assertions.assertEquals("Task 1", task.getTitle());
+                    Assertions.assertEquals("Desc for Task 1", task.getDescription());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldReturnException_WhenTaskGetByIdInvalid() {
+        StepVerifier.create(reactiveTaskService.getById(100L))
+                .expectErrorMatches(exc -> exc instanceof BadRequestException && "Задача с id 100 не найдена".equals(exc.getMessage()))
+                .verify();
+    }
+
+    @Test
+    public void shouldReturnTask_WhenTaskUpdate() {
+        long id = insertTask(task("Task 1"));
+        TaskUpdateDTO taskUpdateDTO = TaskUpdateDTO.builder().id(id).title("Task 1 renamed").status(TaskStatus.IN_PROGRESS).build();
+
+        StepVerifier.create(reactiveTaskService.update(taskUpdateDTO, 0L))
+                .assertNext(task -> {
+                    Assertions.assertEquals("Task 1 renamed", task.getTitle());
+                    Assertions.assertEquals("Desc for Task 1", task.getDescription());
+                    Assertions.assertEquals(TaskStatus.IN_PROGRESS, task.getStatus());
+                    Assertions.assertEquals(1L, task.getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldReturnException_WhenTaskUpdateVersionChanged() {
+        long id = insertTask(task("Task 1"));
+        TaskUpdateDTO taskUpdateDTO = TaskUpdateDTO.builder().id(id).status(TaskStatus.DONE).build();
+
+        StepVerifier.create(reactiveTaskService.update(taskUpdateDTO, 3L))
+                .expectErrorMatches(exc -> exc instanceof PreconditionFailedException
+                        && String.format("Задача с id %d была изменена, текущая версия 0", id).equals(exc.getMessage()))
+                .verify();
+        Mockito.verifyNoInteractions(reactiveUserService);
+    }
+
+    @Test
+    public void shouldReturnCurrentTask_WhenTaskUpdateWithoutFields() {
+        long id = insertTask(task("Task 1"));
+
+        StepVerifier.create(reactiveTaskService.update(TaskUpdateDTO.builder().id(id).build(), 0L))
+                .assertNext(task -> Assertions.assertEquals(0L, task.getVersion()))
+                .verifyComplete();
+        Assertions.assertEquals(1, changes(id));
+    }
+
+    @Test
+    public void shouldSetDeleteStatus_WhenTaskDelete() {
+        long id = insertTask(task("Task 1"));
+
+        StepVerifier.create(reactiveTaskService.delete(id, 0L))
+                .verifyComplete();
+
+        Assertions.assertEquals(TaskStatus.DELETE.toString(), jdbcTemplate.queryForObject(
+                "SELECT status FROM task_service.task WHERE id = :id", new MapSqlParameterSource("id", id), String.class));
+    }
+
+    @Test
+    public void shouldReturnNextCursor_WhenTaskGetAllHasMorePages() {
+        insertTasks(task("Task"), 3);
+
+        TaskPage first = reactiveTaskService.getAll(Optional.of(TaskStatus.TO_DO), Optional.of(1L), null, 2).block();
+        TaskPage second = reactiveTaskService.getAll(Optional.of(TaskStatus.TO_DO), Optional.of(1L), first.getNextCursor(), 2).block();
+
+        Assertions.assertEquals(List.of("Task 1", "Task 2"), first.getItems().stream().map(Task::getTitle).toList());
+        Assertions.assertEquals(List.of("Task 3"), second.getItems().stream().map(Task::getTitle).toList());
+        Assertions.assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void shouldReturnTask_WhenTaskSearchQueryHasSpaces() {
+        insertTask(task("Quarterly report"));
+        insertTask(task("Weekly sync"));
+
+        TaskPage page = reactiveTaskService.search("  quarterly report  ", Optional.empty(), Optional.empty(), null, 10).block();
+
+        Assertions.assertEquals(List.of("Quarterly report"), page.getItems().stream().map(Task::getTitle).toList());
+    }
+
+    @Test
+    public void shouldPassRankAndIdFromCursor_WhenTaskSearchHasMorePages() {
+        insertTasks(task("Quarterly report"), 3);
+
+        TaskPage first = reactiveTaskService.search("quarterly report", Optional.empty(), Optional.empty(), null, 2).block();
+        TaskPage second = reactiveTaskService.search("quarterly report", Optional.empty(), Optional.empty(), first.getNextCursor(), 2).block();
+
+        Assertions.assertEquals(2, first.getItems().size());
+        Assertions.assertEquals(1, second.getItems().size());
+        Assertions.assertFalse(first.getItems().contains(second.getItems().get(0)));
+        Assertions.assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void shouldStreamFilteredTasks_WhenStreamAll() {
+        insertTasks(task("Task"), 3);
+        insertTasks(task("Done").status(TaskStatus.DONE), 2);
+
+        StepVerifier.create(reactiveTaskService.streamAll(Optional.of(TaskStatus.DONE), Optional.empty()).map(Task::getTitle))
+                .expectNext("Done 1", "Done 2")
+                .verifyComplete();
+    }
+
+    private int count() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject("SELECT count(*) FROM task_service.task", Integer.class);
+    }
+
+    private int changes(final long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM task_service.task_change WHERE id = :id", new MapSqlParameterSource("id", id), Integer.class);
+    }
+
+    /**
+     * DatabaseClient на ту же базу, что и DataSource теста.
+     */
+    @TestConfiguration
+    static class R2dbcConfiguration {
+
+        @Bean
+        public DatabaseClient databaseClient(final JdbcConnectionDetails connectionDetails) {
+            ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(connectionDetails.getJdbcUrl().replaceFirst("^jdbc:", "r2dbc:"))
+                    .mutate()
+                    .option(ConnectionFactoryOptions.USER, connectionDetails.getUsername())
+                    .option(ConnectionFactoryOptions.PASSWORD, connectionDetails.getPassword())
+                    .build();
+            return DatabaseClient.create(ConnectionFactories.get(options));
+        }
+    }
+}
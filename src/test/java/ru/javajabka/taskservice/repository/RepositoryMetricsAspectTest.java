@@ -0,0 +1,76 @@
+package ru.javajabka.taskservice.repository;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import ru.javajabka.taskservice.datasource.ReadYourWrites;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.repository.mapper.TaskServiceMapper;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+public class RepositoryMetricsAspectTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PgNotificationListener pgNotificationListener;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TaskServiceRepository taskServiceRepository;
+
+    @BeforeEach
+    public void setUp() {
+        RepositoryMetricsAspect aspect = new RepositoryMetricsAspect(meterRegistry);
+        ReadYourWrites readYourWrites = new ReadYourWrites(Optional.empty());
+        TaskCache taskCache = proxy(new TaskCache(Optional.of(Caffeine.newBuilder().build()), pgNotificationListener, readYourWrites), aspect);
+        taskServiceRepository = proxy(new TaskServiceRepository(jdbcTemplate, new TaskServiceMapper(), taskCache, readYourWrites), aspect);
+    }
+
+    @Test
+    public void shouldTagCacheHitSeparately_WhenTaskGetByIdTwice() {
+        Mockito.when(jdbcTemplate.queryForObject(ArgumentMatchers.anyString(), ArgumentMatchers.any(SqlParameterSource.class), ArgumentMatchers.<RowMapper<Task>>any()))
+                .thenReturn(Task.builder().id(1L).version(0L).build());
+
+        taskServiceRepository.getById(1L);
+        taskServiceRepository.getById(1L);
+        taskServiceRepository.getVersion(1L);
+
+        Assertions.assertEquals(1, count("getById", "miss"));
+        Assertions.assertEquals(1, count("getById", "hit"));
+        Assertions.assertEquals(1, count("getVersion", "hit"));
+        Mockito.verify(jdbcTemplate).queryForObject(ArgumentMatchers.anyString(), ArgumentMatchers.any(SqlParameterSource.class), ArgumentMatchers.<RowMapper<Task>>any());
+    }
+
+    @Test
+    public void shouldTagWithoutCache_WhenQueryDoesNotUseCache() {
+        taskServiceRepository.getAll(Optional.empty(), Optional.empty(), null, 10);
+
+        Assertions.assertEquals(1, count("getAll", "none"));
+    }
+
+    private long count(final String query, final String cache) {
+        return meterRegistry.get("task.repository.query").tags("query", query, "cache", cache).timer().count();
+    }
+
+    private static <T> T proxy(final T target, final RepositoryMetricsAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+}
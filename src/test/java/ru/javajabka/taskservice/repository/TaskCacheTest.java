@@ -0,0 +1,116 @@
+package ru.javajabka.taskservice.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.javajabka.taskservice.datasource.ReadYourWrites;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskStatus;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskCacheTest {
+
+    @Mock
+    private PgNotificationListener pgNotificationListener;
+
+    private final Cache<Long, Task> cache = Caffeine.newBuilder().build();
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(Optional.empty());
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void shouldPutAfterCommit_WhenTaskUpdatedInTransaction() {
+        TaskCache taskCache = new TaskCache(Optional.of(cache), pgNotificationListener, readYourWrites);
+        cache.put(1L, task(1L, 0L, TaskStatus.TO_DO));
+        TransactionSynchronizationManager.initSynchronization();
+
+        taskCache.put(task(1L, 1L, TaskStatus.IN_PROGRESS));
+
+        Assertions.assertNull(cache.getIfPresent(1L));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        Assertions.assertEquals(1L, cache.getIfPresent(1L).getVersion());
+    }
+
+    @Test
+    public void shouldLeaveCacheEmpty_WhenTransactionRolledBack() {
+        TaskCache taskCache = new TaskCache(Optional.of(cache), pgNotificationListener, readYourWrites);
+        cache.put(1L, task(1L, 0L, TaskStatus.TO_DO));
+        TransactionSynchronizationManager.initSynchronization();
+
+        taskCache.put(task(1L, 1L, TaskStatus.IN_PROGRESS));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        Assertions.assertNull(cache.getIfPresent(1L));
+    }
+
+    @Test
+    public void shouldEvict_WhenTaskDeleted() {
+        TaskCache taskCache = new TaskCache(Optional.of(cache), pgNotificationListener, readYourWrites);
+        cache.put(1L, task(1L, 0L, TaskStatus.TO_DO));
+        TransactionSynchronizationManager.initSynchronization();
+
+        taskCache.put(task(1L, 1L, TaskStatus.DELETE));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        Assertions.assertNull(cache.getIfPresent(1L));
+    }
+
+    @Test
+    public void shouldInvalidate_WhenNotifiedOrReconnected() {
+        TaskCache taskCache = new TaskCache(Optional.of(cache), pgNotificationListener, readYourWrites);
+        taskCache.subscribe();
+        ArgumentCaptor<Consumer<String>> onNotification = ArgumentCaptor.captor();
+        ArgumentCaptor<Runnable> onReconnect = ArgumentCaptor.captor();
+        Mockito.verify(pgNotificationListener).subscribe(ArgumentMatchers.eq("task_changed"), onNotification.capture(), onReconnect.capture());
+        cache.put(1L, task(1L, 0L, TaskStatus.TO_DO));
+        cache.put(2L, task(2L, 0L, TaskStatus.TO_DO));
+        cache.put(3L, task(3L, 0L, TaskStatus.TO_DO));
+
+        onNotification.getValue().accept("1");
+
+        Assertions.assertNull(cache.getIfPresent(1L));
+        Assertions.assertNotNull(cache.getIfPresent(2L));
+
+        onReconnect.getValue().run();
+
+        Assertions.assertEquals(0, cache.estimatedSize());
+    }
+
+    @Test
+    public void shouldLoadEveryTime_WhenCacheDisabled() {
+        TaskCache taskCache = new TaskCache(Optional.empty(), pgNotificationListener, readYourWrites);
+        taskCache.subscribe();
+        AtomicInteger loads = new AtomicInteger();
+
+        taskCache.get(1L, id -> task(id, loads.incrementAndGet(), TaskStatus.TO_DO));
+        taskCache.put(task(1L, 5L, TaskStatus.TO_DO));
+        Task task = taskCache.get(1L, id -> task(id, loads.incrementAndGet(), TaskStatus.TO_DO));
+
+        Assertions.assertEquals(2L, task.getVersion());
+        Assertions.assertTrue(taskCache.getIfPresent(1L).isEmpty());
+        Mockito.verifyNoInteractions(pgNotificationListener);
+    }
+
+    private static Task task(final Long id, final long version, final TaskStatus status) {
+        return Task.builder().id(id).version(version).status(status).build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package ru.javajabka.taskservice.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.javajabka.taskservice.model.TaskChange;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.repository.mapper.TaskServiceMapper;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+@Import({TaskChangeRepository.class, TaskServiceMapper.class})
+public class TaskChangeRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private TaskChangeRepository taskChangeRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void shouldRecordChange_WhenTaskCreatedAndUpdated() {
+        long horizon = taskChangeRepository.getHorizon();
+        insertTask(task("Task 1"));
+        jdbcTemplate.getJdbcTemplate().execute("""
+                UPDATE task_service.task SET status = 'IN_PROGRESS', version = version + 1 WHERE title = 'Task 1'
+                """);
+
+        List<TaskChange> changes = taskChangeRepository.getAfter(horizon, 0, Long.MAX_VALUE, Long.MAX_VALUE, 10);
+        Assertions.assertEquals(2, changes.size());
+        Assertions.assertEquals(changes.get(0).getXid(), changes.get(1).getXid());
+        Assertions.assertEquals(changes.get(0).getSeq() + 1, changes.get(1).getSeq());
+        Assertions.assertEquals(TaskStatus.TO_DO, changes.get(0).getTask().getStatus());
+        Assertions.assertEquals(TaskStatus.IN_PROGRESS, changes.get(1).getTask().getStatus());
+        Assertions.assertEquals(1L, changes.get(1).getTask().getVersion());
+        Assertions.assertEquals(changes.get(0).getXid(), taskChangeRepository.getXid(changes.get(0).getSeq()));
+
+        Assertions.assertTrue(taskChangeRepository.getReleasedAfter(horizon, 0, 10).isEmpty());
+        Assertions.assertTrue(taskChangeRepository.hasAfter(horizon, 0));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldReleaseInTransactionOrder_WhenLongTransactionCommitsLast() throws SQLException {
+        long horizon = taskChangeRepository.getHorizon();
+
+        try (Connection longWriter = dataSource.getConnection()) {
+            longWriter.setAutoCommit(false);
+            try (Statement statement = longWriter.createStatement()) {
+                statement.execute("""
+                        INSERT INTO task_service.task (title, description, status, dead_line, author, assignee, created_at)
+                        VALUES ('Long 1', 'Desc for long 1', 'TO_DO', now() + interval '1 day', 1, 1, now())
+                        """);
+            }
+            insertTask(task("Short 1"));
+
+            Assertions.assertTrue(taskChangeRepository.getReleasedAfter(horizon, 0, 10).isEmpty());
+            Assertions.assertTrue(taskChangeRepository.hasAfter(horizon, 0));
+            longWriter.commit();
+        }
+
+        List<TaskChange> changes = taskChangeRepository.getReleasedAfter(horizon, 0, 10);
+        Assertions.assertEquals(List.of("Long 1", "Short 1"), changes.stream().map(change -> change.getTask().getTitle()).toList());
+        Assertions.assertTrue(changes.get(0).getSeq() < changes.get(1).getSeq());
+        TaskChange last = changes.get(1);
+        Assertions.assertFalse(taskChangeRepository.hasAfter(last.getXid(), last.getSeq()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldKeepLastChanges_WhenTrim() {
+        long horizon = taskChangeRepository.getHorizon();
+        insertTasks(task("Trim"), 10);
+        List<TaskChange> changes = taskChangeRepository.getReleasedAfter(horizon, 0, 10);
+
+        taskChangeRepository.trim(3);
+
+        Assertions.assertEquals(10, changes.size());
+        Assertions.assertNull(taskChangeRepository.getXid(changes.get(6).getSeq()));
+        Assertions.assertNotNull(taskChangeRepository.getXid(changes.get(7).getSeq()));
+        TaskChange trimmed = taskChangeRepository.getTrimmed();
+        Assertions.assertEquals(changes.get(6).getXid(), trimmed.getXid());
+        Assertions.assertEquals(changes.get(6).getSeq(), trimmed.getSeq());
+
+        taskChangeRepository.trim(3);
+        Assertions.assertEquals(changes.get(6).getSeq(), taskChangeRepository.getTrimmed().getSeq());
+    }
+}
@@ -0,0 +1,53 @@
+package ru.javajabka.taskservice.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import ru.javajabka.taskservice.datasource.ReadYourWrites;
+import ru.javajabka.taskservice.model.TaskRequestDTO;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Import(TaskCopyRepository.class)
+public class TaskCopyRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private TaskCopyRepository taskCopyRepository;
+
+    @MockitoBean
+    private ReadYourWrites readYourWrites;
+
+    @Test
+    public void shouldInsertTasksAndRejectDuplicates_WhenImportFromStaging() {
+        insertTask(task("Task 1"));
+
+        Map<Integer, TaskRequestDTO> tasks = new LinkedHashMap<>();
+        tasks.put(1, buildTaskRequest("Task 1"));
+        tasks.put(2, buildTaskRequest("Task \"2\", с запятой"));
+        tasks.put(3, buildTaskRequest("Task \"2\", с запятой"));
+        Map<Integer, String> rejected = new LinkedHashMap<>();
+
+        taskCopyRepository.createStaging();
+        taskCopyRepository.copyToStaging(tasks);
+        taskCopyRepository.insertFromStaging(rejected::put);
+
+        Assertions.assertEquals(Map.of(
+                1, "Задача с названием Task 1 уже существует",
+                3, "Задача с названием Task \"2\", с запятой уже есть в файле"), rejected);
+        Assertions.assertEquals(1, jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT count(*) FROM task_service.task WHERE title = 'Task \"2\", с запятой'", Integer.class));
+    }
+
+    private TaskRequestDTO buildTaskRequest(final String title) {
+        return TaskRequestDTO.builder()
+                .title(title)
+                .description("Desc")
+                .deadLine(LocalDate.now().plusDays(1))
+                .author(1L)
+                .assignee(1L)
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package ru.javajabka.taskservice.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import ru.javajabka.taskservice.datasource.ReadYourWrites;
+import ru.javajabka.taskservice.exception.BadRequestException;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.model.TaskTreeStats;
+import ru.javajabka.taskservice.repository.mapper.TaskServiceMapper;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@Import({TaskGraphRepository.class, TaskServiceRepository.class, TaskServiceMapper.class})
+public class TaskGraphRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private TaskGraphRepository taskGraphRepository;
+
+    @Autowired
+    private TaskServiceRepository taskServiceRepository;
+
+    @MockitoBean
+    private TaskCache taskCache;
+
+    @MockitoBean
+    private ReadYourWrites readYourWrites;
+
+    @Test
+    public void shouldReturnSubtreeDepthFirst_SkippingDeletedBranches() {
+        long root = insertTask(task("Root"));
+        long first = insertTask(task("First").status(TaskStatus.IN_PROGRESS).parentId(root));
+        long second = insertTask(task("Second").status(TaskStatus.DONE).parentId(root));
+        long firstChild = insertTask(task("First child").status(TaskStatus.DONE).parentId(first));
+        long deleted = insertTask(task("Deleted").status(TaskStatus.DELETE).parentId(second));
+        insertTask(task("Under deleted").parentId(deleted));
+
+        List<Task> subtree = taskGraphRepository.getSubtree(root, 1000);
+
+        Assertions.assertEquals(List.of(root, first, firstChild, second), subtree.stream().map(Task::getId).toList());
+        Assertions.assertEquals(List.of(0, 1, 2, 1), subtree.stream().map(Task::getDepth).toList());
+        Assertions.assertEquals(first, subtree.get(2).getParentId());
+        Assertions.assertEquals(List.of(root, first, second), taskGraphRepository.getSubtree(root, 1).stream().map(Task::getId).toList());
+
+        TaskTreeStats stats = taskGraphRepository.getSubtreeStats(root, 1000);
+        Assertions.assertEquals(4, stats.getTotal());
+        Assertions.assertEquals(2, stats.getDepth());
+        Assertions.assertEquals(Map.of(TaskStatus.TO_DO, 1L, TaskStatus.IN_PROGRESS, 1L, TaskStatus.DONE, 2L), stats.getByStatus());
+    }
+
+    @Test
+    public void shouldDetectCycle_WhenMoveUnderDescendant() {
+        long root = insertTask(task("Root"));
+        long child = insertTask(task("Child").parentId(root));
+        long grandChild = insertTask(task("Grand child").parentId(child));
+        long other = insertTask(task("Other"));
+
+        Assertions.assertTrue(taskGraphRepository.isAncestorOf(root, grandChild));
+        Assertions.assertTrue(taskGraphRepository.isAncestorOf(root, root));
+        Assertions.assertFalse(taskGraphRepository.isAncestorOf(grandChild, root));
+        Assertions.assertFalse(taskGraphRepository.isAncestorOf(root, other));
+    }
+
+    @Test
+    public void shouldReturnNearestDistance_WhenDependenciesFormDiamond() {
+        long release = insertTask(task("Release"));
+        long backend = insertTask(task("Backend"));
+        long frontend = insertTask(task("Frontend"));
+        long schema = insertTask(task("Schema").status(TaskStatus.DONE));
+        taskGraphRepository.addDependency(release, backend);
+        taskGraphRepository.addDependency(release, frontend);
+        taskGraphRepository.addDependency(backend, schema);
+        taskGraphRepository.addDependency(frontend, schema);
+        taskGraphRepository.addDependency(release, schema);
+
+        List<Task> blockedBy = taskGraphRepository.getBlockedBy(release, 1000);
+        List<Task> blocking = taskGraphRepository.getBlocking(schema, 1000);
+
+        Assertions.assertEquals(List.of(backend, frontend, schema), blockedBy.stream().map(Task::getId).toList());
+        Assertions.assertEquals(List.of(1, 1, 1), blockedBy.stream().map(Task::getDepth).toList());
+        Assertions.assertEquals(List.of(release, backend, frontend), blocking.stream().map(Task::getId).toList());
+        Assertions.assertEquals(List.of(1, 1, 1), blocking.stream().map(Task::getDepth).toList());
+        Assertions.assertFalse(taskGraphRepository.isBlockedBy(schema, release));
+        Assertions.assertTrue(taskGraphRepository.isBlockedBy(release, schema));
+    }
+
+    @Test
+    public void shouldKeepDeletedParent_WhileSubtasksRemain() {
+        long parent = insertTask(task("Parent").status(TaskStatus.DELETE));
+        long live = insertTask(task("Live").parentId(parent));
+        insertTask(task("Deleted leaf").status(TaskStatus.DELETE).parentId(parent));
+        long top = insertTask(task("Deleted top").status(TaskStatus.DELETE));
+        long middle = insertTask(task("Deleted middle").status(TaskStatus.DELETE).parentId(top));
+        insertTask(task("Deleted bottom").status(TaskStatus.DELETE).parentId(middle));
+        jdbcTemplate.getJdbcTemplate().execute("UPDATE task_service.task SET updated_at = now() - interval '1 day'");
+
+        Assertions.assertEquals(2, taskServiceRepository.archiveDeleted(Duration.ofHours(1), 100));
+        Assertions.assertEquals(1, taskServiceRepository.archiveDeleted(Duration.ofHours(1), 100));
+        Assertions.assertEquals(1, taskServiceRepository.archiveDeleted(Duration.ofHours(1), 100));
+        Assertions.assertEquals(0, taskServiceRepository.archiveDeleted(Duration.ofHours(1), 100));
+
+        Assertions.assertEquals(parent, jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT parent_id FROM task_service.task WHERE id = ?", Long.class, live));
+        Assertions.assertEquals(0, jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT count(*) FROM task_service.task_outbox WHERE event_type = 'TASK_MOVED'", Integer.class));
+        Assertions.assertEquals(4, jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT count(*) FROM task_service.task_archive", Integer.class));
+        Assertions.assertThrows(
+                DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update("DELETE FROM task_service.task WHERE id = :id", new MapSqlParameterSource("id", parent))
+        );
+    }
+
+    @Test
+    public void shouldReportMissingParent_WhenCreateUnderUnknownTask() {
+        final BadRequestException badRequestException = Assertions.assertThrows(
+                BadRequestException.class,
+                () -> taskServiceRepository.create(task("Orphan").parentId(999999L).build())
+        );
+
+        Assertions.assertEquals("Задача с id 999999 не найдена", badRequestException.getMessage());
+    }
+
+    @Test
+    public void shouldRethrowOtherViolations_WhenCreateWithoutParent() {
+        Assertions.assertThrows(
+                DataIntegrityViolationException.class,
+                () -> taskServiceRepository.create(task("No description").description(null).build())
+        );
+    }
+
+    @Test
+    public void shouldUseParentIndex_WhenRollUpSubtree() {
+        insertTasks(task("Task"), 20000);
+        long root = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT min(id) FROM task_service.task", Long.class);
+        jdbcTemplate.update("""
+                UPDATE task_service.task SET parent_id = :root + (id - :root - 1) / 10
+                WHERE id > :root
+                """, new MapSqlParameterSource("root", root));
+        jdbcTemplate.getJdbcTemplate().execute("ANALYZE task_service.task");
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN " + TaskGraphRepository.GET_SUBTREE_STATS,
+                new MapSqlParameterSource().addValue("id", root).addValue("maxDepth", 1000),
+                String.class
+        );
+        Assertions.assertTrue(String.join("\n", plan).contains("task_parent_id_idx"), String.join("\n", plan));
+    }
+}
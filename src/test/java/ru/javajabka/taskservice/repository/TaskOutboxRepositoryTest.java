@@ -0,0 +1,45 @@
+package ru.javajabka.taskservice.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import ru.javajabka.taskservice.model.TaskEvent;
+import java.time.Duration;
+import java.util.List;
+
+@Import(TaskOutboxRepository.class)
+public class TaskOutboxRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private TaskOutboxRepository taskOutboxRepository;
+
+    @Test
+    public void shouldNotClaimAgain_UntilLeaseExpires() {
+        long first = insertTask(task("First"));
+        long second = insertTask(task("Second"));
+
+        List<TaskEvent> claimed = taskOutboxRepository.claimBatch(10, Duration.ofMinutes(1));
+
+        Assertions.assertEquals(List.of(first, second), claimed.stream().map(TaskEvent::getTaskId).toList());
+        Assertions.assertEquals(List.of("TASK_CREATED", "TASK_CREATED"), claimed.stream().map(TaskEvent::getType).toList());
+        Assertions.assertTrue(taskOutboxRepository.claimBatch(10, Duration.ofMinutes(1)).isEmpty());
+    }
+
+    @Test
+    public void shouldClaimAgain_WhenLeaseExpired() {
+        insertTask(task("Lost"));
+
+        List<TaskEvent> claimed = taskOutboxRepository.claimBatch(10, Duration.ZERO);
+
+        Assertions.assertEquals(claimed, taskOutboxRepository.claimBatch(10, Duration.ZERO));
+    }
+
+    @Test
+    public void shouldClaimOnlyLimit_WhenMoreEventsReady() {
+        insertTasks(task("Task"), 5);
+
+        Assertions.assertEquals(3, taskOutboxRepository.claimBatch(3, Duration.ofMinutes(1)).size());
+        Assertions.assertEquals(2, taskOutboxRepository.claimBatch(3, Duration.ofMinutes(1)).size());
+    }
+}
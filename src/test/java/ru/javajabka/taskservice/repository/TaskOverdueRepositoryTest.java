@@ -0,0 +1,73 @@
+package ru.javajabka.taskservice.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.javajabka.taskservice.datasource.ReadYourWrites;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.repository.mapper.TaskServiceMapper;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+@Import({TaskServiceRepository.class, TaskServiceMapper.class})
+public class TaskOverdueRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private TaskServiceRepository taskServiceRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockitoBean
+    private TaskCache taskCache;
+
+    @MockitoBean
+    private ReadYourWrites readYourWrites;
+
+    @Test
+    public void shouldFlagPastDeadLinesOnce_InBatches() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        insertTasks(task("Task").deadLine(yesterday), 3);
+        insertTask(task("Due today").deadLine(LocalDate.now()));
+        insertTask(task("Done").status(TaskStatus.DONE).deadLine(yesterday));
+
+        List<Task> first = taskServiceRepository.flagOverdue(2);
+        List<Task> second = taskServiceRepository.flagOverdue(2);
+
+        Assertions.assertEquals(2, first.size());
+        Assertions.assertEquals(1, second.size());
+        Assertions.assertTrue(taskServiceRepository.flagOverdue(2).isEmpty());
+        Assertions.assertTrue(first.stream().allMatch(task -> task.getOverdueAt() != null && task.getVersion() == 1L));
+        Assertions.assertEquals(3, jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT count(*) FROM task_service.task WHERE overdue_at IS NOT NULL AND title LIKE 'Task %'", Integer.class));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldSkipTasksLockedByOtherInstance() throws SQLException {
+        insertTasks(task("Locked").deadLine(LocalDate.now().minusDays(1)), 1);
+        insertTasks(task("Free").deadLine(LocalDate.now().minusDays(1)), 2);
+
+        try (Connection other = dataSource.getConnection()) {
+            other.setAutoCommit(false);
+            try (Statement statement = other.createStatement()) {
+                statement.execute("SELECT id FROM task_service.task WHERE title = 'Locked 1' FOR UPDATE");
+            }
+
+            List<Task> flagged = taskServiceRepository.flagOverdue(10);
+            Assertions.assertEquals(List.of("Free 1", "Free 2"), flagged.stream().map(Task::getTitle).sorted().toList());
+            other.rollback();
+        }
+
+        Assertions.assertEquals(List.of("Locked 1"), taskServiceRepository.flagOverdue(10).stream().map(Task::getTitle).toList());
+    }
+}
@@ -0,0 +1,87 @@
+package ru.javajabka.taskservice.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import ru.javajabka.taskservice.model.TaskStatus;
+import java.util.List;
+import java.util.Optional;
+
+public class TaskServiceRepositoryPlanTest extends PostgresRepositoryTest {
+
+    @BeforeEach
+    public void fillTasks() {
+        insertTasks(task("Task").status(TaskStatus.TO_DO).assignee(0L), 17000, 500);
+        insertTasks(task("Started").status(TaskStatus.IN_PROGRESS).assignee(0L), 17000, 500);
+        insertTasks(task("Finished").status(TaskStatus.DONE).assignee(0L), 16000, 500);
+        jdbcTemplate.getJdbcTemplate().execute("ANALYZE task_service.task");
+    }
+
+    @Test
+    public void shouldUsePartialIndex_WhenFilterByAssignee() {
+        String plan = explain(Optional.empty(), Optional.of(7L));
+        Assertions.assertTrue(plan.contains("task_active_assignee_id_idx"), plan);
+    }
+
+    @Test
+    public void shouldUseCompositeIndex_WhenFilterByAssigneeAndStatus() {
+        String plan = explain(Optional.of(TaskStatus.IN_PROGRESS), Optional.of(7L));
+        Assertions.assertTrue(plan.contains("task_assignee_status_id_idx"), plan);
+    }
+
+    @Test
+    public void shouldUseStatusIndex_WhenFilterByDeletedStatus() {
+        insertTasks(task("Deleted").status(TaskStatus.DELETE), 2000);
+        jdbcTemplate.getJdbcTemplate().execute("ANALYZE task_service.task");
+
+        String plan = explain(Optional.of(TaskStatus.DELETE), Optional.empty());
+        Assertions.assertTrue(plan.contains("task_status_id_idx"), plan);
+    }
+
+    @Test
+    public void shouldUseDeletedIndex_WhenArchiveDeleted() {
+        insertTasks(task("Deleted").status(TaskStatus.DELETE), 25);
+        jdbcTemplate.getJdbcTemplate().execute("ANALYZE task_service.task");
+
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource()
+                .addValue("retentionSeconds", 0)
+                .addValue("limit", 1000);
+
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + TaskServiceRepository.ARCHIVE_DELETED, parameterSource, String.class);
+        Assertions.assertTrue(String.join("\n", plan).contains("task_deleted_changed_at_idx"), String.join("\n", plan));
+    }
+
+    @Test
+    public void shouldUseSearchIndexes_WhenSearchByQuery() {
+        insertTask(task("Quarterly report"));
+        jdbcTemplate.getJdbcTemplate().execute("ANALYZE task_service.task");
+
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource()
+                .addValue("q", "quarterly report")
+                .addValue("prefix", "quarterly report%")
+                .addValue("limit", 51);
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN " + TaskServiceRepository.searchSql(TaskServiceRepository.COLUMNS, Optional.empty(), Optional.empty(), false),
+                parameterSource,
+                String.class
+        );
+        Assertions.assertTrue(String.join("\n", plan).contains("task_search_vector_idx"), String.join("\n", plan));
+        Assertions.assertTrue(String.join("\n", plan).contains("task_title_trgm_idx"), String.join("\n", plan));
+    }
+
+    private String explain(final Optional<TaskStatus> status, final Optional<Long> assignee) {
+        MapSqlParameterSource parameterSource = new MapSqlParameterSource()
+                .addValue("status", status.map(TaskStatus::toString).orElse(null))
+                .addValue("assignee", assignee.orElse(null))
+                .addValue("limit", 51);
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN " + TaskServiceRepository.getAllSql(TaskServiceRepository.COLUMNS, status, assignee, null, 51),
+                parameterSource,
+                String.class
+        );
+        return String.join("\n", plan);
+    }
+}
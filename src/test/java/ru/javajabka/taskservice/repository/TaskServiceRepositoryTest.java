@@ -0,0 +1,99 @@
+package ru.javajabka.taskservice.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import ru.javajabka.taskservice.datasource.ReadYourWrites;
+import ru.javajabka.taskservice.exception.PreconditionFailedException;
+import ru.javajabka.taskservice.model.Task;
+import ru.javajabka.taskservice.model.TaskField;
+import ru.javajabka.taskservice.model.TaskStatus;
+import ru.javajabka.taskservice.repository.mapper.TaskServiceMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+@Import({TaskServiceRepository.class, TaskServiceMapper.class})
+public class TaskServiceRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private TaskServiceRepository taskServiceRepository;
+
+    @MockitoBean
+    private TaskCache taskCache;
+
+    @MockitoBean
+    private ReadYourWrites readYourWrites;
+
+    @BeforeEach
+    public void passThroughCache() {
+        Mockito.when(taskCache.get(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> invocation.<Function<Long, Task>>getArgument(1).apply(invocation.getArgument(0)));
+    }
+
+    @Test
+    public void shouldNotWrite_WhenUpdateWithoutFields() {
+        long id = insertTask(task("Unchanged"));
+        Map<String, Object> before = row(id);
+
+        Task updated = taskServiceRepository.update(Task.builder().id(id).version(0L).build());
+
+        Assertions.assertEquals(0L, updated.getVersion());
+        Assertions.assertEquals("Unchanged", updated.getTitle());
+        Assertions.assertEquals(before, row(id));
+        Mockito.verify(taskCache, Mockito.never()).put(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void shouldReturnException_WhenUpdateWithoutFieldsAndVersionChanged() {
+        long id = insertTask(task("Stale"));
+
+        final PreconditionFailedException exception = Assertions.assertThrows(
+                PreconditionFailedException.class,
+                () -> taskServiceRepository.update(Task.builder().id(id).version(7L).build())
+        );
+
+        Assertions.assertEquals(String.format("Задача с id %d была изменена, текущая версия 0", id), exception.getMessage());
+    }
+
+    @Test
+    public void shouldReturnOnlyRequestedFields_WhenTaskCached() {
+        Task cached = Task.builder().id(1L).title("Cached").description("Desc for Cached").status(TaskStatus.TO_DO).assignee(2L).version(3L).build();
+        Mockito.when(taskCache.getIfPresent(1L)).thenReturn(Optional.of(cached));
+
+        Task task = taskServiceRepository.getById(1L, Set.of(TaskField.TITLE));
+
+        Assertions.assertEquals(Task.builder().id(1L).title("Cached").version(3L).build(), task);
+    }
+
+    @Test
+    public void shouldStreamAllTasks_WhenMoreThanOneFetch() {
+        insertTasks(task("Task"), 1200);
+        List<String> titles = new ArrayList<>();
+
+        taskServiceRepository.streamAll(Optional.of(TaskStatus.TO_DO), Optional.empty(), task -> titles.add(task.getTitle()));
+
+        Assertions.assertEquals(1200, titles.size());
+        Assertions.assertEquals("Task 1", titles.get(0));
+        Assertions.assertEquals("Task 1200", titles.get(1199));
+    }
+
+    private Map<String, Object> row(final long id) {
+        return jdbcTemplate.queryForMap(
+                """
+                SELECT version, updated_at, (SELECT count(*) FROM task_service.task_change WHERE id = :id) AS changes
+                FROM task_service.task WHERE id = :id
+                """,
+                new MapSqlParameterSource("id", id)
+        );
+    }
+}
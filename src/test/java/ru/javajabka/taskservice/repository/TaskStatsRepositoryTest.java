@@ -0,0 +1,115 @@
+package ru.javajabka.taskservice.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import ru.javajabka.taskservice.model.TaskStats;
+import ru.javajabka.taskservice.model.TaskStatus;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Map;
+
+@Import(TaskStatsRepository.class)
+public class TaskStatsRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private TaskStatsRepository taskStatsRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    public void fillTasks() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        insertTask(task("Task 1"));
+        insertTask(task("Task 2").deadLine(yesterday));
+        insertTask(task("Task 3").status(TaskStatus.DONE).deadLine(yesterday).assignee(2L));
+        insertTask(task("Task 4").status(TaskStatus.DELETE).deadLine(yesterday).assignee(2L));
+        jdbcTemplate.getJdbcTemplate().execute("UPDATE task_service.task SET overdue_at = now() WHERE status NOT IN ('DONE', 'DELETE') AND dead_line < current_date");
+    }
+
+    @Test
+    public void shouldCountTasks_WhenTasksCreatedAndUpdated() {
+        jdbcTemplate.getJdbcTemplate().execute("""
+                UPDATE task_service.task SET status = 'IN_PROGRESS', assignee = 2 WHERE title = 'Task 1'
+                """);
+
+        TaskStats stats = taskStatsRepository.getStats();
+        Assertions.assertEquals(Map.of(TaskStatus.TO_DO, 1L, TaskStatus.IN_PROGRESS, 1L, TaskStatus.DONE, 1L), stats.getByStatus());
+        Assertions.assertEquals(Map.of(1L, 1L, 2L, 2L), stats.getByAssignee());
+        Assertions.assertEquals(1, stats.getOverdue());
+        Assertions.assertEquals(2, stats.getOnTime());
+    }
+
+    @Test
+    public void shouldMoveTaskBetweenBuckets_WhenDeadlineChangedOrDone() {
+        jdbcTemplate.getJdbcTemplate().execute("UPDATE task_service.task SET dead_line = current_date + 7, overdue_at = NULL WHERE title = 'Task 2'");
+        Assertions.assertEquals(0, taskStatsRepository.getStats().getOverdue());
+
+        jdbcTemplate.getJdbcTemplate().execute("UPDATE task_service.task SET dead_line = current_date - 7, overdue_at = now() WHERE title = 'Task 2'");
+        jdbcTemplate.getJdbcTemplate().execute("UPDATE task_service.task SET dead_line = current_date - 8 WHERE title = 'Task 2'");
+        Assertions.assertEquals(1, taskStatsRepository.getStats().getOverdue());
+        Assertions.assertEquals(1, jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT task_count FROM task_service.task_counter WHERE status = 'TO_DO' AND assignee = 1 AND overdue", Long.class));
+
+        jdbcTemplate.getJdbcTemplate().execute("UPDATE task_service.task SET status = 'DONE' WHERE title = 'Task 2'");
+        TaskStats stats = taskStatsRepository.getStats();
+        Assertions.assertEquals(0, stats.getOverdue());
+        Assertions.assertEquals(3, stats.getOnTime());
+    }
+
+    @Test
+    public void shouldFixCounters_WhenReconcileAfterDrift() {
+        jdbcTemplate.getJdbcTemplate().execute("UPDATE task_service.task_counter SET task_count = task_count + 5");
+        jdbcTemplate.getJdbcTemplate().execute("""
+                INSERT INTO task_service.task_counter (status, assignee, overdue, task_count)
+                VALUES ('TO_DO', 3, false, 7)
+                """);
+
+        Assertions.assertEquals(5, taskStatsRepository.reconcile(Long.MIN_VALUE, Long.MAX_VALUE));
+        Assertions.assertEquals(1, taskStatsRepository.deleteEmptyCounters());
+
+        TaskStats stats = taskStatsRepository.getStats();
+        Assertions.assertEquals(Map.of(TaskStatus.TO_DO, 2L, TaskStatus.DONE, 1L), stats.getByStatus());
+        Assertions.assertEquals(Map.of(1L, 2L, 2L, 1L), stats.getByAssignee());
+    }
+
+    @Test
+    public void shouldSplitByAssignee_WhenRangeSizeSmall() {
+        Assertions.assertEquals(1L, taskStatsRepository.getAssigneeRangeEnd(Long.MIN_VALUE, 2));
+        Assertions.assertEquals(2L, taskStatsRepository.getAssigneeRangeEnd(Long.MIN_VALUE, 3));
+        Assertions.assertEquals(2L, taskStatsRepository.getAssigneeRangeEnd(1L, 1));
+        Assertions.assertNull(taskStatsRepository.getAssigneeRangeEnd(1L, 3));
+
+        jdbcTemplate.getJdbcTemplate().execute("UPDATE task_service.task_counter SET task_count = task_count + 1");
+
+        Assertions.assertEquals(2, taskStatsRepository.reconcile(Long.MIN_VALUE, 1L));
+        Assertions.assertEquals(Map.of(1L, 2L, 2L, 2L), taskStatsRepository.getStats().getByAssignee());
+    }
+
+    @Test
+    public void shouldNotWaitForWriters_WhenReconcile() throws SQLException {
+        jdbcTemplate.getJdbcTemplate().execute("SET LOCAL lock_timeout = '2s'");
+        jdbcTemplate.getJdbcTemplate().execute("UPDATE task_service.task_counter SET task_count = task_count + 1 WHERE assignee = 1");
+
+        try (Connection writer = dataSource.getConnection()) {
+            writer.setAutoCommit(false);
+            try (Statement statement = writer.createStatement()) {
+                statement.execute("""
+                        INSERT INTO task_service.task (title, description, status, dead_line, author, assignee, created_at)
+                        VALUES ('Task 9', 'Desc for task 9', 'TO_DO', now() + interval '1 day', 1, 9, now())
+                        """);
+            }
+
+            Assertions.assertEquals(2, taskStatsRepository.reconcile(Long.MIN_VALUE, Long.MAX_VALUE));
+            writer.rollback();
+        }
+
+        Assertions.assertEquals(Map.of(1L, 2L, 2L, 1L), taskStatsRepository.getStats().getByAssignee());
+    }
+}